@@ -0,0 +1,27 @@
+package stsc.performance;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Benchmarks report ops/s and average time
+ * (see their BenchmarkMode), this runner adds the allocation rates of the gc
+ * profiler. JMH command line options (-p, -f, -i, benchmark regexp ...) are
+ * passed through.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder(). //
+				parent(commandLine). //
+				addProfiler(GCProfiler.class). //
+				build()).run();
+	}
+
+}
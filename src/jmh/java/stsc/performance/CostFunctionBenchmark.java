@@ -0,0 +1,81 @@
+package stsc.performance;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stsc.general.statistic.MetricType;
+import stsc.general.statistic.Metrics;
+import stsc.general.statistic.cost.function.CostWeightedSumFunction;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * One cost evaluation: CostWeightedSumFunction over Metrics vs
+ * {@link WeightedMetricCost} over {@link MetricVector}s, same weights, metrics
+ * of simulated random grid points. Run through {@link BenchmarkRunner} to see
+ * gc.alloc.rate.norm (bytes per evaluation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CostFunctionBenchmark {
+
+	private static final int STRATEGIES = 256;
+
+	private final CostWeightedSumFunction weightedSum = new CostWeightedSumFunction(). //
+			withParameter(MetricType.avGain, 1.0). //
+			withParameter(MetricType.winProb, 0.5). //
+			withParameter(MetricType.kelly, 0.3). //
+			withParameter(MetricType.maxLoss, -0.2);
+	private final WeightedMetricCost dotProduct = new WeightedMetricCost(). //
+			withParameter(MetricType.avGain, 1.0). //
+			withParameter(MetricType.winProb, 0.5). //
+			withParameter(MetricType.kelly, 0.3). //
+			withParameter(MetricType.maxLoss, -0.2);
+
+	private Metrics[] metrics;
+	private double[][] vectors;
+	private int index;
+
+	@Setup
+	public void simulate() throws Exception {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(false, StockStorageMock.getStockStorage(), settings.elements,
+				settings.getStartOfPeriod(), PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusMonths(6)));
+		final GridGeneticOperators operators = new GridGeneticOperators(list.getSpace());
+		final SplittableRandom random = new SplittableRandom(0);
+		final int[] digits = list.newDigits();
+		metrics = new Metrics[STRATEGIES];
+		vectors = new double[STRATEGIES][];
+		for (int i = 0; i < STRATEGIES; ++i) {
+			metrics[i] = ExecutionSimulator.simulate(list.materialize(operators.generateRandom(random), digits)).getMetrics();
+			vectors[i] = MetricVector.of(metrics[i]);
+		}
+	}
+
+	@Benchmark
+	public double weightedSum() {
+		index = (index + 1) % STRATEGIES;
+		return weightedSum.calculate(metrics[index]);
+	}
+
+	@Benchmark
+	public double dotProduct() {
+		index = (index + 1) % STRATEGIES;
+		return dotProduct.cost(vectors[index]);
+	}
+
+}
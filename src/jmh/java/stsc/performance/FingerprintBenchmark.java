@@ -0,0 +1,80 @@
+package stsc.performance;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stsc.general.simulator.ExecutionImpl;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * Identity of a strategy's settings: ExecutionImpl.stringHashCode() and
+ * {@link SettingsFingerprint#fingerprint(stsc.general.simulator.Execution)}
+ * of an already materialized execution vs {@link SettingsFingerprint} of its
+ * grid index (decode included). Points are random points of the full space.
+ * Run through {@link BenchmarkRunner} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FingerprintBenchmark {
+
+	@Param({ "1024" })
+	public int points;
+
+	private long[] indexes;
+	private ExecutionImpl[] executions;
+	private SettingsFingerprint fingerprint;
+	private int[] digits;
+	private int position;
+
+	@Setup
+	public void setUp() throws Exception {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(false, StockStorageMock.getStockStorage(), settings.elements,
+				settings.getStartOfPeriod(), PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusMonths(6)));
+		final GridGeneticOperators operators = new GridGeneticOperators(list.getSpace());
+		final SplittableRandom random = new SplittableRandom(0);
+		digits = list.newDigits();
+		indexes = new long[points];
+		executions = new ExecutionImpl[points];
+		for (int i = 0; i < points; ++i) {
+			indexes[i] = operators.generateRandom(random);
+			executions[i] = list.materialize(indexes[i], digits);
+		}
+		fingerprint = new SettingsFingerprint(list.getSpace());
+	}
+
+	@Benchmark
+	public String stringHashCode() {
+		position = (position + 1) % points;
+		return executions[position].stringHashCode();
+	}
+
+	@Benchmark
+	public long executionFingerprint() {
+		position = (position + 1) % points;
+		return SettingsFingerprint.fingerprint(executions[position]);
+	}
+
+	@Benchmark
+	public long fingerprint() {
+		position = (position + 1) % points;
+		return fingerprint.fingerprint(indexes[position], digits);
+	}
+
+}
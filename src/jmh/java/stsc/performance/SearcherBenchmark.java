@@ -0,0 +1,62 @@
+package stsc.performance;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end {@link stsc.general.simulator.multistarter.grid.StrategyGridSearcher}
+ * / {@link stsc.general.simulator.multistarter.genetic.StrategyGeneticSearcher}
+ * runs. Grid search over the full space does not finish in reasonable time, so
+ * only the small space is enabled by default; use -p smallSpace=false to
+ * override.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearcherBenchmark {
+
+	@Param({ "GRID_SEARCHER", "GENETIC_SEARCHER" })
+	public String searcherType;
+
+	@Param({ "true" })
+	public boolean smallSpace;
+
+	@Param({ "4" })
+	public int threads;
+
+	@Param({ "1" })
+	public int periodInYears;
+
+	private PerformanceCalculator calculator;
+	private String endOfPeriod;
+
+	@Setup
+	public void setUp() throws Exception {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		settings.searcherType = SearcherType.valueOf(searcherType);
+		settings.performanceForGridTest = smallSpace;
+		settings.printStarterInfo = false;
+		calculator = new PerformanceCalculator(settings);
+		endOfPeriod = PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusYears(periodInYears));
+	}
+
+	@Benchmark
+	public double search() throws Exception {
+		return calculator.timeForSearch(threads, endOfPeriod).sumAvGainForBest;
+	}
+
+}
@@ -0,0 +1,117 @@
+package stsc.performance;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import stsc.general.statistic.cost.comparator.MetricsSameComparator;
+import stsc.general.strategy.TradingStrategy;
+import stsc.general.strategy.selector.StatisticsByCostSelector;
+import stsc.general.strategy.selector.StrategySelector;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * Insert time of the shared StatisticsByCostSelector (under the lock the
+ * searchers take) vs {@link ConcurrentTopKSelector}. Strategies are simulated
+ * once for random points of the full space. Every iteration starts with empty
+ * selectors and inserts every strategy once, the threads take disjoint slices
+ * of them, so accepted and rejected inserts mix as in a search instead of
+ * the selector rejecting strategies it already holds.
+ * {@link #main(String[])} runs it for 1 - 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 200)
+@Fork(1)
+public class SelectorBenchmark {
+
+	@Param({ "synchronized", "concurrent" })
+	public String selectorType;
+
+	@Param({ "1024" })
+	public int strategies;
+
+	private TradingStrategy[] pool;
+	private int storedStrategyAmount;
+	private StrategySelector selector;
+	private ConcurrentTopKSelector topKSelector;
+
+	@State(Scope.Thread)
+	public static class Slice {
+		int from;
+		int to;
+
+		@Setup
+		public void setUp(SelectorBenchmark benchmark, ThreadParams thread) {
+			from = (int) ((long) benchmark.strategies * thread.getThreadIndex() / thread.getThreadCount());
+			to = (int) ((long) benchmark.strategies * (thread.getThreadIndex() + 1) / thread.getThreadCount());
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void simulate() throws Exception {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		storedStrategyAmount = settings.storedStrategyAmount;
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(false, StockStorageMock.getStockStorage(), settings.elements,
+				settings.getStartOfPeriod(), PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusMonths(6)));
+		final GridGeneticOperators operators = new GridGeneticOperators(list.getSpace());
+		final SplittableRandom random = new SplittableRandom(0);
+		final int[] digits = list.newDigits();
+		pool = new TradingStrategy[strategies];
+		for (int i = 0; i < strategies; ++i) {
+			pool[i] = ExecutionSimulator.simulate(list.materialize(operators.generateRandom(random), digits));
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void createSelectors() {
+		selector = new StatisticsByCostSelector(storedStrategyAmount, WeightedMetricCost.defaultWeights(), new MetricsSameComparator());
+		topKSelector = new ConcurrentTopKSelector(storedStrategyAmount, WeightedMetricCost.defaultWeights());
+	}
+
+	@Benchmark
+	public int insert(Slice slice) {
+		int accepted = 0;
+		for (int i = slice.from; i < slice.to; ++i) {
+			if (selectorType.equals("concurrent")) {
+				if (topKSelector.addStrategy(i, pool[i]))
+					++accepted;
+			} else {
+				synchronized (selector) {
+					selector.addStrategy(pool[i]);
+				}
+				++accepted;
+			}
+		}
+		return accepted;
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int threads : new int[] { 1, 2, 4, 8, 16 }) {
+			new Runner(new OptionsBuilder(). //
+					include(SelectorBenchmark.class.getSimpleName()). //
+					threads(threads). //
+					addProfiler(GCProfiler.class). //
+					build()).run();
+		}
+	}
+
+}
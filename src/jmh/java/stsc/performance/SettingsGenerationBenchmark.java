@@ -0,0 +1,88 @@
+package stsc.performance;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stsc.common.algorithms.BadAlgorithmException;
+import stsc.common.storage.StockStorage;
+import stsc.general.simulator.Execution;
+import stsc.general.simulator.ExecutionImpl;
+import stsc.general.simulator.multistarter.genetic.SimulatorSettingsGeneticListImpl;
+import stsc.general.simulator.multistarter.grid.SimulatorSettingsGridList;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * JMH replacement for the hand-rolled loops of {@link MemoryConsumption}: grid
+ * iteration and genetic generateRandom / merge / mutate, measured on the small
+ * and on the full {@link SimulatorSettingsGenerator} parameter space.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SettingsGenerationBenchmark {
+
+	@Param({ "true", "false" })
+	public boolean smallSpace;
+
+	private SimulatorSettingsGridList gridList;
+	private Iterator<ExecutionImpl> gridIterator;
+
+	private SimulatorSettingsGeneticListImpl geneticList;
+	private Execution left;
+	private Execution right;
+
+	@Setup
+	public void setUp() throws BadAlgorithmException {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		final StockStorage stockStorage = StockStorageMock.getStockStorage();
+		final String from = settings.getStartOfPeriod();
+		final String to = PerformanceCalculatorSettings.getDateRepresentation(new LocalDate(2014, 1, 1));
+
+		gridList = SimulatorSettingsGenerator.getGridFactory(smallSpace, stockStorage, settings.elements, from, to).getList();
+		gridIterator = gridList.iterator();
+
+		geneticList = SimulatorSettingsGenerator.getGeneticFactory(smallSpace, stockStorage, settings.elements, from, to).getList();
+		left = geneticList.generateRandom();
+		right = geneticList.generateRandom();
+	}
+
+	@Benchmark
+	public ExecutionImpl gridIteratorNext() {
+		if (!gridIterator.hasNext()) {
+			gridIterator = gridList.iterator();
+		}
+		return gridIterator.next();
+	}
+
+	@Benchmark
+	public Execution geneticGenerateRandom() throws BadAlgorithmException {
+		return geneticList.generateRandom();
+	}
+
+	@Benchmark
+	public Execution geneticMerge() {
+		return geneticList.merge(left, right);
+	}
+
+	@Benchmark
+	public Execution geneticMutate() {
+		return geneticList.mutate(left);
+	}
+
+}
@@ -0,0 +1,85 @@
+package stsc.performance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import stsc.common.storage.StockStorage;
+import stsc.general.simulator.ExecutionImpl;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * Time of one simulation of a random grid point, with the executions reading
+ * the source storage (heap or columnar) directly vs a
+ * {@link SharedStockStorage} built from it. Executions are materialized in
+ * the setup, so only ExecutionSimulator.simulate() is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SharedStockBenchmark {
+
+	private static final int POINTS = 256;
+
+	@Param({ "HEAP", "MMAP" })
+	public String storageType;
+
+	@Param({ "false", "true" })
+	public boolean shared;
+
+	private Path directory;
+	private ExecutionImpl[] executions;
+	private int position;
+
+	@Setup
+	public void setUp() throws Exception {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		StockStorage storage = StockStorageMock.getStockStorage();
+		if (StorageType.valueOf(storageType) == StorageType.MMAP) {
+			directory = Files.createTempDirectory("columns");
+			ColumnarStockStorage.convert(storage, directory);
+			storage = ColumnarStockStorage.open(directory);
+		}
+		if (shared)
+			storage = SharedStockStorage.of(storage);
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(false, storage, settings.elements, settings.getStartOfPeriod(),
+				PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusMonths(6)));
+		final GridGeneticOperators operators = new GridGeneticOperators(list.getSpace());
+		final SplittableRandom random = new SplittableRandom(0);
+		final int[] digits = list.newDigits();
+		executions = new ExecutionImpl[POINTS];
+		for (int i = 0; i < POINTS; ++i) {
+			executions[i] = list.materialize(operators.generateRandom(random), digits);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (directory != null)
+			ColumnarStockStorage.delete(directory);
+	}
+
+	@Benchmark
+	public double simulate() throws Exception {
+		position = (position + 1) % POINTS;
+		return ExecutionSimulator.simulate(executions[position]).getAvGain();
+	}
+
+}
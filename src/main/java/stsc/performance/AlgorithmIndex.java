@@ -0,0 +1,115 @@
+package stsc.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.Properties;
+
+import stsc.common.algorithms.BadAlgorithmException;
+import stsc.storage.AlgorithmsStorage;
+
+/**
+ * Short algorithm name to algorithm class name index. Lookups never touch a
+ * file: names missing from the index are resolved by the classpath discovery
+ * of {@link AlgorithmsStorage} and kept in memory. {@link #store(Path)} writes
+ * the index to an explicit file together with the key of the stsc library it
+ * was resolved from, {@link #load(Path)} ignores a file of another library.
+ */
+final class AlgorithmIndex {
+
+	static final String FILE_NAME = "algorithms.properties";
+
+	private static final String LIBRARY = "library";
+
+	private final Properties names = new Properties();
+
+	AlgorithmIndex() {
+	}
+
+	/**
+	 * @return index of file, empty if it is missing, unreadable or written for
+	 *         another library
+	 */
+	static AlgorithmIndex load(Path file) {
+		final AlgorithmIndex index = new AlgorithmIndex();
+		final String library = libraryKey();
+		if (library == null || !Files.isRegularFile(file))
+			return index;
+		try (InputStream in = Files.newInputStream(file)) {
+			index.names.load(in);
+		} catch (IOException e) {
+			index.names.clear();
+		}
+		if (!library.equals(index.names.getProperty(LIBRARY)))
+			index.names.clear();
+		index.names.remove(LIBRARY);
+		return index;
+	}
+
+	/**
+	 * @return implementation version, location, size and modification time of
+	 *         the library AlgorithmsStorage is loaded from, null when unknown
+	 */
+	static String libraryKey() {
+		try {
+			final CodeSource source = AlgorithmsStorage.class.getProtectionDomain().getCodeSource();
+			if (source == null)
+				return null;
+			final Path library = Paths.get(source.getLocation().toURI());
+			final Package libraryPackage = AlgorithmsStorage.class.getPackage();
+			return (libraryPackage == null ? null : libraryPackage.getImplementationVersion()) + " " + library + " " + Files.size(library) + " "
+					+ Files.getLastModifiedTime(library).toMillis();
+		} catch (URISyntaxException | IOException | SecurityException | IllegalArgumentException | FileSystemNotFoundException e) {
+			return null;
+		}
+	}
+
+	synchronized boolean isEmpty() {
+		return names.isEmpty();
+	}
+
+	synchronized String getStockName(String name) throws BadAlgorithmException {
+		final String key = "stock." + name;
+		String result = names.getProperty(key);
+		if (result == null) {
+			result = AlgorithmsStorage.getInstance().getStock(name).getName();
+			names.setProperty(key, result);
+		}
+		return result;
+	}
+
+	synchronized String getEodName(String name) throws BadAlgorithmException {
+		final String key = "eod." + name;
+		String result = names.getProperty(key);
+		if (result == null) {
+			result = AlgorithmsStorage.getInstance().getEod(name).getName();
+			names.setProperty(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the resolved names to file; nothing is written when the library
+	 * is unknown, such an index could never be loaded.
+	 */
+	synchronized void store(Path file) throws IOException {
+		final String library = libraryKey();
+		if (library == null)
+			return;
+		final Properties content = new Properties();
+		content.putAll(names);
+		content.setProperty(LIBRARY, library);
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
+		try (OutputStream out = Files.newOutputStream(file)) {
+			content.store(out, "stsc.performance algorithm index");
+		}
+	}
+
+}
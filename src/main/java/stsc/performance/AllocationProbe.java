@@ -0,0 +1,122 @@
+package stsc.performance;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Headless replacement for attaching a profiler by hand: counts bytes
+ * allocated by the current thread, heap retained after a full GC and GC pause
+ * time between {@link #start()} and {@link #stop(long)}.
+ */
+final class AllocationProbe {
+
+	private static final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	private static final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+	private final long threadId = Thread.currentThread().getId();
+
+	private final long heapBefore;
+	private final long allocatedBefore;
+	private final long gcTimeBefore;
+	private final long gcCountBefore;
+
+	private long objects;
+	private long allocatedBytes;
+	private long retainedBytes;
+	private long gcTime;
+	private long gcCount;
+
+	private AllocationProbe() {
+		this.heapBefore = usedHeapAfterGc();
+		this.gcTimeBefore = totalGcTime();
+		this.gcCountBefore = totalGcCount();
+		this.allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+	}
+
+	static AllocationProbe start() {
+		return new AllocationProbe();
+	}
+
+	/**
+	 * Should be called while the generated objects are still reachable,
+	 * otherwise retained heap is not accounted.
+	 */
+	AllocationProbe stop(long objects) {
+		this.allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		this.gcTime = totalGcTime() - gcTimeBefore;
+		this.gcCount = totalGcCount() - gcCountBefore;
+		this.retainedBytes = usedHeapAfterGc() - heapBefore;
+		this.objects = objects;
+		return this;
+	}
+
+	long objects() {
+		return objects;
+	}
+
+	double allocatedPerObject() {
+		return objects == 0 ? 0.0 : (double) allocatedBytes / objects;
+	}
+
+	double retainedPerObject() {
+		return objects == 0 ? 0.0 : (double) retainedBytes / objects;
+	}
+
+	long gcTimeInMillis() {
+		return gcTime;
+	}
+
+	long gcCount() {
+		return gcCount;
+	}
+
+	static String header() {
+		return String.format("%-10s %12s %16s %16s %10s %8s", "Operation", "N", "allocated/obj", "retained/obj", "gc ms", "gc");
+	}
+
+	String row(String operation) {
+		return String.format("%-10s %12d %16.1f %16.1f %10d %8d", operation, objects, allocatedPerObject(), retainedPerObject(), gcTime, gcCount);
+	}
+
+	/**
+	 * @return resident set size of this process in bytes (Linux only), -1 if
+	 *         unknown
+	 */
+	static long residentSetSize() {
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+				if (line.startsWith("VmRSS:"))
+					return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+			}
+		} catch (IOException | NumberFormatException e) {
+		}
+		return -1;
+	}
+
+	private static long usedHeapAfterGc() {
+		for (int i = 0; i < 3; ++i) {
+			System.gc();
+		}
+		return memoryBean.getHeapMemoryUsage().getUsed();
+	}
+
+	private static long totalGcTime() {
+		long result = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result += Math.max(0, bean.getCollectionTime());
+		}
+		return result;
+	}
+
+	private static long totalGcCount() {
+		long result = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result += Math.max(0, bean.getCollectionCount());
+		}
+		return result;
+	}
+}
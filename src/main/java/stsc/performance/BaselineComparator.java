@@ -0,0 +1,90 @@
+package stsc.performance;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a run against a stored baseline: records with the same
+ * {@link BenchmarkRecord#key()} are matched, mean throughput of the run lower
+ * than (1 - tolerance) of the baseline mean is a regression. Keys missing in
+ * either run are ignored.
+ */
+final class BaselineComparator {
+
+	private final double tolerance;
+
+	/**
+	 * @param tolerance
+	 *            allowed relative throughput loss, 0.1 for 10%
+	 */
+	BaselineComparator(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return human readable regressions, empty if there are none
+	 */
+	List<String> regressions(List<BenchmarkRecord> baseline, List<BenchmarkRecord> current) {
+		final Map<String, Double> expected = meanThroughput(baseline);
+		final Map<String, Double> actual = meanThroughput(current);
+		final List<String> result = new ArrayList<>();
+		for (Map.Entry<String, Double> e : actual.entrySet()) {
+			final Double base = expected.get(e.getKey());
+			if (base != null && e.getValue() < base * (1.0 - tolerance))
+				result.add(e.getKey() + ": " + e.getValue() + " per second, baseline " + base + " (" + Math.round(100.0 * (1.0 - e.getValue() / base)) + "% slower)");
+		}
+		return result;
+	}
+
+	/**
+	 * @return keys of the run that have no baseline record, empty if all are
+	 *         compared
+	 */
+	List<String> unmatched(List<BenchmarkRecord> baseline, List<BenchmarkRecord> current) {
+		final Map<String, Double> expected = meanThroughput(baseline);
+		final List<String> result = new ArrayList<>();
+		for (String key : meanThroughput(current).keySet()) {
+			if (!expected.containsKey(key))
+				result.add(key);
+		}
+		return result;
+	}
+
+	private static Map<String, Double> meanThroughput(List<BenchmarkRecord> records) {
+		final Map<String, Double> sums = new LinkedHashMap<>();
+		final Map<String, Integer> counts = new LinkedHashMap<>();
+		for (BenchmarkRecord record : records) {
+			sums.merge(record.key(), record.throughput(), Double::sum);
+			counts.merge(record.key(), 1, Integer::sum);
+		}
+		final Map<String, Double> result = new LinkedHashMap<>();
+		for (Map.Entry<String, Double> e : sums.entrySet()) {
+			result.put(e.getKey(), e.getValue() / counts.get(e.getKey()));
+		}
+		return result;
+	}
+
+	/**
+	 * Arguments: baseline file, current file, tolerance (default 0.1). Exits
+	 * with 1 if there are regressions.
+	 */
+	public static void main(String[] args) {
+		try {
+			final double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+			final List<String> regressions = new BaselineComparator(tolerance).regressions(ResultSink.read(Paths.get(args[0])),
+					ResultSink.read(Paths.get(args[1])));
+			for (String regression : regressions) {
+				System.out.println(regression);
+			}
+			if (!regressions.isEmpty())
+				System.exit(1);
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(2);
+		}
+	}
+
+}
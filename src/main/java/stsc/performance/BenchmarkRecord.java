@@ -0,0 +1,184 @@
+package stsc.performance;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One measured result of a driver: what was measured (scenario, searcher
+ * type, threads, period length in days, points), the result (seconds, avGain,
+ * bytes per point) and the JVM / host it was measured on. Written by
+ * {@link ResultSink} as a flat JSON object per line or as a CSV row, numbers
+ * that do not apply to a scenario are 0 (NaN for avGain). In JSON only the
+ * {@link #MEASURES} are numbers (a NaN one is a string), every other field is
+ * a string even when it looks like a number.
+ */
+final class BenchmarkRecord {
+
+	static final String[] FIELDS = { "scenario", "searcherType", "threads", "periodDays", "points", "seconds", "avGain", "bytesPerPoint", "javaVersion", "vm",
+			"os", "processors", "maxHeap", "host", "timestamp" };
+
+	static final Set<String> MEASURES = new HashSet<>(
+			Arrays.asList("threads", "periodDays", "points", "seconds", "avGain", "bytesPerPoint", "processors", "maxHeap", "timestamp"));
+
+	private static final Pattern JSON_FIELD = Pattern.compile("\"(\\w+)\":(\"((?:[^\"\\\\]|\\\\.)*)\"|[^,}]*)");
+
+	private final Map<String, String> values = new LinkedHashMap<>();
+
+	BenchmarkRecord(String scenario) {
+		values.put("scenario", scenario);
+		values.put("searcherType", "");
+		values.put("threads", "0");
+		values.put("periodDays", "0");
+		values.put("points", "0");
+		values.put("seconds", "0.0");
+		values.put("avGain", "NaN");
+		values.put("bytesPerPoint", "0.0");
+		values.put("javaVersion", System.getProperty("java.version"));
+		values.put("vm", System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version"));
+		values.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch"));
+		values.put("processors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+		values.put("maxHeap", String.valueOf(Runtime.getRuntime().maxMemory()));
+		values.put("host", host());
+		values.put("timestamp", String.valueOf(ManagementFactory.getRuntimeMXBean().getStartTime()));
+	}
+
+	private BenchmarkRecord(Map<String, String> parsed) {
+		for (String field : FIELDS) {
+			values.put(field, parsed.containsKey(field) ? parsed.get(field) : "");
+		}
+	}
+
+	private static String host() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			return "unknown";
+		}
+	}
+
+	BenchmarkRecord withSearcherType(Object searcherType) {
+		values.put("searcherType", String.valueOf(searcherType));
+		return this;
+	}
+
+	BenchmarkRecord withThreads(int threads) {
+		values.put("threads", String.valueOf(threads));
+		return this;
+	}
+
+	BenchmarkRecord withPeriodDays(int periodDays) {
+		values.put("periodDays", String.valueOf(periodDays));
+		return this;
+	}
+
+	BenchmarkRecord withPoints(long points) {
+		values.put("points", String.valueOf(points));
+		return this;
+	}
+
+	BenchmarkRecord withSeconds(double seconds) {
+		values.put("seconds", String.valueOf(seconds));
+		return this;
+	}
+
+	BenchmarkRecord withAvGain(double avGain) {
+		values.put("avGain", String.valueOf(avGain));
+		return this;
+	}
+
+	BenchmarkRecord withBytesPerPoint(double bytesPerPoint) {
+		values.put("bytesPerPoint", String.valueOf(bytesPerPoint));
+		return this;
+	}
+
+	String get(String field) {
+		return values.get(field);
+	}
+
+	double getSeconds() {
+		return Double.parseDouble(values.get("seconds"));
+	}
+
+	double getAvGain() {
+		return Double.parseDouble(values.get("avGain"));
+	}
+
+	/**
+	 * @return points per second, runs per second when points are not known
+	 */
+	double throughput() {
+		final long points = Long.parseLong(values.get("points"));
+		return (points > 0 ? points : 1) / getSeconds();
+	}
+
+	/**
+	 * @return what was measured, records with the same key are comparable
+	 */
+	String key() {
+		return get("scenario") + "|" + get("searcherType") + "|" + get("threads") + "|" + get("periodDays") + "|" + get("points");
+	}
+
+	String toJson() {
+		final StringBuilder result = new StringBuilder("{");
+		for (Map.Entry<String, String> e : values.entrySet()) {
+			if (result.length() > 1)
+				result.append(',');
+			result.append('"').append(e.getKey()).append("\":");
+			if (MEASURES.contains(e.getKey()) && isNumber(e.getValue()))
+				result.append(e.getValue());
+			else
+				result.append('"').append(e.getValue().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+		}
+		return result.append('}').toString();
+	}
+
+	private static boolean isNumber(String value) {
+		try {
+			return Double.isFinite(Double.parseDouble(value));
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	static String csvHeader() {
+		return String.join(",", FIELDS);
+	}
+
+	String toCsv() {
+		final StringBuilder result = new StringBuilder();
+		for (String value : values.values()) {
+			if (result.length() > 0)
+				result.append(',');
+			result.append(value.replace(',', ' '));
+		}
+		return result.toString();
+	}
+
+	static BenchmarkRecord fromJson(String line) {
+		final Map<String, String> parsed = new LinkedHashMap<>();
+		final Matcher matcher = JSON_FIELD.matcher(line);
+		while (matcher.find()) {
+			final String value = matcher.group(3) != null ? matcher.group(3).replace("\\\"", "\"").replace("\\\\", "\\") : matcher.group(2).trim();
+			parsed.put(matcher.group(1), value);
+		}
+		return new BenchmarkRecord(parsed);
+	}
+
+	static BenchmarkRecord fromCsv(String line) {
+		final Map<String, String> parsed = new LinkedHashMap<>();
+		final String[] cells = line.split(",", -1);
+		for (int i = 0; i < FIELDS.length && i < cells.length; ++i) {
+			parsed.put(FIELDS[i], cells[i]);
+		}
+		return new BenchmarkRecord(parsed);
+	}
+
+}
@@ -0,0 +1,187 @@
+package stsc.performance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import stsc.common.Day;
+import stsc.common.Prices;
+import stsc.common.stocks.Stock;
+import stsc.common.stocks.StockImpl;
+import stsc.common.storage.StockStorage;
+
+/**
+ * Stock storage as a directory of memory-mapped column files, one
+ * {@link StockColumns} file per stock. Opening maps the files, nothing is read
+ * onto the heap until a column is touched. As a StockStorage it hands out
+ * Stock views over the columns; the simulator reads Day objects, so a view
+ * builds its days from the columns on the first getDays() and only stocks
+ * the search touches reach the heap.
+ * <p>
+ * The storage is read-only: the stocks are fixed by the column files at
+ * {@link #open(Path)}, new data is written with {@link #convert} and opened
+ * again, and {@link #updateStock(Stock)} throws
+ * UnsupportedOperationException.
+ */
+final class ColumnarStockStorage implements StockStorage {
+
+	static final String EXTENSION = ".columns";
+
+	private static final class ColumnarStock extends StockImpl {
+
+		private final StockColumns columns;
+		private ArrayList<Day> days;
+
+		ColumnarStock(StockColumns columns) {
+			this.columns = columns;
+		}
+
+		@Override
+		public String getInstrumentName() {
+			return columns.getName();
+		}
+
+		@Override
+		public String getName() {
+			return columns.getName();
+		}
+
+		@Override
+		public synchronized ArrayList<Day> getDays() {
+			if (days == null) {
+				final ArrayList<Day> result = new ArrayList<>(columns.days());
+				for (int i = 0; i < columns.days(); ++i) {
+					result.add(new Day(date(columns.date(i)), new Prices(columns.open(i), columns.high(i), columns.low(i), columns.close(i)), columns.value(i)));
+				}
+				days = result;
+			}
+			return days;
+		}
+	}
+
+	private final Path directory;
+	private final TreeMap<String, StockColumns> columns = new TreeMap<>();
+	private final TreeMap<String, Stock> stocks = new TreeMap<>();
+
+	private ColumnarStockStorage(Path directory) {
+		this.directory = directory;
+	}
+
+	static ColumnarStockStorage open(Path directory) throws IOException {
+		final ColumnarStockStorage storage = new ColumnarStockStorage(directory);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (Path file : files) {
+				final String fileName = file.getFileName().toString();
+				final String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+					final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+					final StockColumns stock = new StockColumns(name, buffer);
+					storage.columns.put(name, stock);
+					storage.stocks.put(name, new ColumnarStock(stock));
+				}
+			}
+		}
+		return storage;
+	}
+
+	/**
+	 * Writes every stock of the heap storage as a column file into directory.
+	 */
+	static void convert(StockStorage stockStorage, Path directory) throws IOException {
+		Files.createDirectories(directory);
+		for (String name : stockStorage.getStockNames()) {
+			final Optional<Stock> stock = stockStorage.getStock(name);
+			if (stock.isPresent()) {
+				write(stock.get().getDays(), directory.resolve(name + EXTENSION));
+			}
+		}
+	}
+
+	/**
+	 * Removes the column files of directory and the directory itself.
+	 */
+	static void delete(Path directory) {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+			Files.deleteIfExists(directory);
+		} catch (IOException e) {
+			// an unmapped leftover in a temporary directory only
+		}
+	}
+
+	private static void write(List<Day> days, Path file) throws IOException {
+		final int size = days.size();
+		final ByteBuffer buffer = ByteBuffer.allocate(StockColumns.fileSize(size)).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(0, StockColumns.MAGIC);
+		buffer.putInt(4, StockColumns.VERSION);
+		buffer.putInt(8, size);
+		final int pricesOffset = StockColumns.pricesOffset(size);
+		for (int i = 0; i < size; ++i) {
+			final Day day = days.get(i);
+			buffer.putInt(StockColumns.HEADER_SIZE + i * 4, epochDay(day.getDate()));
+			buffer.putDouble(pricesOffset + (StockColumns.OPEN * size + i) * 8, day.getPrices().getOpen());
+			buffer.putDouble(pricesOffset + (StockColumns.HIGH * size + i) * 8, day.getPrices().getHigh());
+			buffer.putDouble(pricesOffset + (StockColumns.LOW * size + i) * 8, day.getPrices().getLow());
+			buffer.putDouble(pricesOffset + (StockColumns.CLOSE * size + i) * 8, day.getPrices().getClose());
+			buffer.putDouble(pricesOffset + (StockColumns.VALUE * size + i) * 8, day.getVolume());
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Day dates are local midnights, so the local calendar date is stored.
+	 */
+	static int epochDay(Date date) {
+		return Math.toIntExact(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay());
+	}
+
+	static Date date(int epochDay) {
+		return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	@Override
+	public Set<String> getStockNames() {
+		return Collections.unmodifiableSet(columns.keySet());
+	}
+
+	@Override
+	public Optional<Stock> getStock(String name) {
+		return Optional.ofNullable(stocks.get(name));
+	}
+
+	@Override
+	public void updateStock(Stock stock) {
+		throw new UnsupportedOperationException("Columnar stock storage is read-only");
+	}
+
+	Path getDirectory() {
+		return directory;
+	}
+
+	StockColumns getColumns(String name) {
+		return columns.get(name);
+	}
+
+}
@@ -0,0 +1,175 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import stsc.general.statistic.Metrics;
+import stsc.general.statistic.cost.function.CostFunction;
+import stsc.general.strategy.TradingStrategy;
+import stsc.general.strategy.selector.StrategySelector;
+
+/**
+ * Top-K selection without a shared lock: every thread keeps its own bounded
+ * min-heap, full heaps publish their minimal cost as a global threshold
+ * (the global K-th best can not be worse), strategies under the threshold are
+ * rejected by one volatile read. Strategies are identified by their grid
+ * index: a heap keeps an index once, so a full heap holds size distinct
+ * strategies and its minimal cost stays a valid threshold.
+ * {@link #mergeInto(StrategySelector)} moves the best size distinct indexes of
+ * all local heaps into a regular selector when the search is over.
+ */
+final class ConcurrentTopKSelector {
+
+	private static final class Entry {
+		final long index;
+		final TradingStrategy strategy;
+		final double cost;
+
+		Entry(long index, TradingStrategy strategy, double cost) {
+			this.index = index;
+			this.strategy = strategy;
+			this.cost = cost;
+		}
+	}
+
+	private static final class Heap {
+		final PriorityQueue<Entry> entries;
+		final Set<Long> indexes = new HashSet<>();
+
+		Heap(int size) {
+			this.entries = new PriorityQueue<>(Math.min(size, 1024) + 1, (l, r) -> Double.compare(l.cost, r.cost));
+		}
+	}
+
+	private final int size;
+	private final CostFunction costFunction;
+	private final Queue<Heap> heaps = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<Heap> local = ThreadLocal.withInitial(this::newHeap);
+	private final AtomicLong threshold = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+	private final LongAdder rejected = new LongAdder();
+
+	ConcurrentTopKSelector(int size, CostFunction costFunction) {
+		this.size = size;
+		this.costFunction = costFunction;
+	}
+
+	private Heap newHeap() {
+		final Heap heap = new Heap(size);
+		heaps.add(heap);
+		return heap;
+	}
+
+	/**
+	 * @param index
+	 *            grid index of the strategy
+	 */
+	boolean addStrategy(long index, TradingStrategy strategy) {
+		return addStrategy(index, strategy, cost(strategy.getMetrics()));
+	}
+
+	/**
+	 * @return cost of metrics by the cost function of this selector
+	 */
+	double cost(Metrics metrics) {
+		if (costFunction instanceof WeightedMetricCost)
+			return ((WeightedMetricCost) costFunction).cost(metrics);
+		return costFunction.calculate(metrics);
+	}
+
+	/**
+	 * @param cost
+	 *            already calculated cost of the strategy
+	 * @return false when the strategy was rejected or its index is already
+	 *         kept by this thread
+	 */
+	boolean addStrategy(long index, TradingStrategy strategy, double cost) {
+		if (cost <= Double.longBitsToDouble(threshold.get())) {
+			rejected.increment();
+			return false;
+		}
+		final Heap heap = local.get();
+		if (!heap.indexes.add(index))
+			return false;
+		heap.entries.add(new Entry(index, strategy, cost));
+		if (heap.entries.size() > size)
+			heap.indexes.remove(heap.entries.poll().index);
+		if (heap.entries.size() == size)
+			publish(heap.entries.peek().cost);
+		return true;
+	}
+
+	private void publish(double cost) {
+		while (true) {
+			final long current = threshold.get();
+			if (cost <= Double.longBitsToDouble(current) || threshold.compareAndSet(current, Double.doubleToLongBits(cost)))
+				return;
+		}
+	}
+
+	CostFunction getCostFunction() {
+		return costFunction;
+	}
+
+	/**
+	 * @return cost a strategy has to exceed to be kept, negative infinity
+	 *         while no heap is full
+	 */
+	double getThreshold() {
+		return Double.longBitsToDouble(threshold.get());
+	}
+
+	long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return best size distinct entries of all local heaps, best first
+	 */
+	private List<Entry> merge() {
+		final List<Entry> entries = new ArrayList<>();
+		for (Heap heap : heaps) {
+			entries.addAll(heap.entries);
+		}
+		entries.sort((l, r) -> Double.compare(r.cost, l.cost));
+		final Set<Long> merged = new HashSet<>();
+		final List<Entry> result = new ArrayList<>();
+		for (Entry e : entries) {
+			if (merged.size() == size)
+				break;
+			if (merged.add(e.index))
+				result.add(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Should be called after all adding threads are finished.
+	 */
+	StrategySelector mergeInto(StrategySelector selector) {
+		for (Entry e : merge()) {
+			selector.addStrategy(e.strategy);
+		}
+		return selector;
+	}
+
+	/**
+	 * Should be called after all adding threads are finished.
+	 *
+	 * @return grid indexes of the best size strategies, best first
+	 */
+	List<Long> getIndexes() {
+		final List<Long> result = new ArrayList<>();
+		for (Entry e : merge()) {
+			result.add(e.index);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,367 @@
+package stsc.performance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.common.storage.StockStorage;
+import stsc.general.strategy.selector.StrategySelector;
+
+/**
+ * Coordinator of a multi-process grid search on one host: the index space is
+ * cut into leases, {@link GridWorker} processes (spawned by the coordinator,
+ * or started by hand with the {@link #getPort()}) take them over local sockets
+ * and return the top-K of every lease as grid indexes with costs. A lease of
+ * a worker that disconnects or does not answer in leaseTimeout is given to
+ * another worker, a spawned worker that died is spawned again (at most
+ * maxRespawns times). The search fails when no lease finishes in two
+ * leaseTimeouts or when all spawned workers are dead, none is connected and
+ * no respawn is left. Workers read the stocks from a
+ * {@link ColumnarStockStorage} snapshot of the coordinator storage. The merged
+ * top-K indexes are simulated once more by the coordinator to fill the
+ * selector. Workers rank by the weights of the builder cost function, sent to
+ * them with the grid. Started by {@link Builder#build()}.
+ */
+final class DistributedGridSearcher {
+
+	private static Logger logger = LogManager.getLogger("DistributedGridSearcher");
+
+	private static final long NO_LEASE = -1;
+	private static final long SUPERVISION_PERIOD = 100;
+
+	static final class Builder {
+		private boolean smallSpace;
+		private List<String> openTypes;
+		private StockStorage stockStorage;
+		private String periodFrom;
+		private String periodTo;
+		private StrategySelector selector;
+		private WeightedMetricCost costFunction = WeightedMetricCost.defaultWeights();
+		private int storedStrategyAmount = 100;
+		private int workerAmount = 2;
+		private long leaseSize = 1000;
+		private int leaseTimeout = 10 * 60 * 1000;
+		private int maxRespawns = 4;
+
+		/**
+		 * Workers rebuild the grid from the same
+		 * {@link SimulatorSettingsGenerator} arguments; stockStorage reaches
+		 * them as its directory when it is a {@link ColumnarStockStorage},
+		 * otherwise it is converted into a temporary one for the search.
+		 */
+		Builder setGrid(boolean smallSpace, StockStorage stockStorage, List<String> openTypes, String periodFrom, String periodTo) {
+			this.smallSpace = smallSpace;
+			this.stockStorage = stockStorage;
+			this.openTypes = openTypes;
+			this.periodFrom = periodFrom;
+			this.periodTo = periodTo;
+			return this;
+		}
+
+		Builder setSelector(StrategySelector selector) {
+			this.selector = selector;
+			return this;
+		}
+
+		/**
+		 * Cost the workers rank the points of a lease by, the selector should
+		 * rank by the same cost.
+		 */
+		Builder setCostFunction(WeightedMetricCost costFunction) {
+			this.costFunction = costFunction;
+			return this;
+		}
+
+		Builder setStoredStrategyAmount(int storedStrategyAmount) {
+			this.storedStrategyAmount = storedStrategyAmount;
+			return this;
+		}
+
+		/**
+		 * @param workerAmount
+		 *            worker processes to spawn, 0 to wait for external ones
+		 */
+		Builder setWorkerAmount(int workerAmount) {
+			this.workerAmount = workerAmount;
+			return this;
+		}
+
+		Builder setLeaseSize(long leaseSize) {
+			this.leaseSize = leaseSize;
+			return this;
+		}
+
+		/**
+		 * @param leaseTimeout
+		 *            milliseconds
+		 */
+		Builder setLeaseTimeout(int leaseTimeout) {
+			this.leaseTimeout = leaseTimeout;
+			return this;
+		}
+
+		/**
+		 * @param maxRespawns
+		 *            spawned workers that may be replaced after they died
+		 */
+		Builder setMaxRespawns(int maxRespawns) {
+			this.maxRespawns = maxRespawns;
+			return this;
+		}
+
+		DistributedGridSearcher build() throws IOException {
+			return new DistributedGridSearcher(this);
+		}
+	}
+
+	static Builder getBuilder() {
+		return new Builder();
+	}
+
+	private final Builder settings;
+	private final IndexedGridList list;
+	private final StrategySelector selector;
+	private final IndexTopK result;
+
+	private final BlockingDeque<long[]> leases = new LinkedBlockingDeque<>();
+	private final int leaseAmount;
+	private final CountDownLatch remaining;
+	private final LongAdder reissued = new LongAdder();
+	private final LongAdder respawned = new LongAdder();
+	private final AtomicInteger connected = new AtomicInteger();
+
+	private final Path stocks;
+	private final boolean temporaryStocks;
+	private final ServerSocket server;
+	private final Thread acceptor;
+	private final List<Process> workers = new CopyOnWriteArrayList<>();
+
+	private DistributedGridSearcher(Builder builder) throws IOException {
+		this.settings = builder;
+		this.list = SimulatorSettingsGenerator.getIndexedGridList(builder.smallSpace, builder.stockStorage, builder.openTypes, builder.periodFrom,
+				builder.periodTo);
+		this.selector = builder.selector;
+		this.result = new IndexTopK(builder.storedStrategyAmount);
+		for (long from = 0; from < list.size(); from += builder.leaseSize) {
+			leases.add(new long[] { from, Math.min(list.size(), from + builder.leaseSize) });
+		}
+		this.leaseAmount = leases.size();
+		this.remaining = new CountDownLatch(leaseAmount);
+		if (builder.stockStorage instanceof ColumnarStockStorage) {
+			this.stocks = ((ColumnarStockStorage) builder.stockStorage).getDirectory();
+			this.temporaryStocks = false;
+		} else {
+			this.stocks = Files.createTempDirectory("stocks");
+			this.temporaryStocks = true;
+			ColumnarStockStorage.convert(builder.stockStorage, stocks);
+		}
+		this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		this.acceptor = new Thread(this::accept, "DistributedGridSearcher");
+		this.acceptor.start();
+		for (int i = 0; i < builder.workerAmount; ++i) {
+			workers.add(spawnWorker());
+		}
+	}
+
+	private Process spawnWorker() throws IOException {
+		final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), GridWorker.class.getName(), "localhost",
+				String.valueOf(getPort())).inheritIO().start();
+	}
+
+	int getPort() {
+		return server.getLocalPort();
+	}
+
+	private void accept() {
+		while (!server.isClosed()) {
+			try {
+				final Socket socket = server.accept();
+				new Thread(() -> serve(socket), "DistributedGridSearcher-" + socket.getPort()).start();
+			} catch (IOException e) {
+				if (!server.isClosed())
+					logger.error("Accept failed", e);
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		long[] lease = null;
+		connected.incrementAndGet();
+		try (Socket s = socket) {
+			s.setSoTimeout(settings.leaseTimeout);
+			final DataInputStream input = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+			final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+			output.writeBoolean(settings.smallSpace);
+			output.writeInt(settings.openTypes.size());
+			for (String openType : settings.openTypes) {
+				output.writeUTF(openType);
+			}
+			output.writeUTF(settings.periodFrom);
+			output.writeUTF(settings.periodTo);
+			output.writeUTF(stocks.toAbsolutePath().toString());
+			output.writeInt(settings.storedStrategyAmount);
+			for (int m = 0; m < MetricVector.SIZE; ++m) {
+				output.writeDouble(settings.costFunction.weight(m));
+			}
+			while ((lease = nextLease()) != null) {
+				output.writeLong(lease[0]);
+				output.writeLong(lease[1]);
+				output.flush();
+				final IndexTopK leaseResult = IndexTopK.readFrom(input, settings.storedStrategyAmount);
+				synchronized (result) {
+					result.addAll(leaseResult);
+				}
+				lease = null;
+				remaining.countDown();
+			}
+			output.writeLong(NO_LEASE);
+			output.writeLong(NO_LEASE);
+			output.flush();
+		} catch (IOException | InterruptedException e) {
+			if (lease != null) {
+				logger.warn("Lease [" + lease[0] + ", " + lease[1] + ") failed, reissued", e);
+				reissued.increment();
+				leases.addFirst(lease);
+			}
+		} finally {
+			connected.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @return null when all leases are done
+	 */
+	private long[] nextLease() throws InterruptedException {
+		while (remaining.getCount() > 0) {
+			final long[] lease = leases.poll(100, TimeUnit.MILLISECONDS);
+			if (lease != null)
+				return lease;
+		}
+		return null;
+	}
+
+	/**
+	 * @return leases that were given to another worker after a failure
+	 */
+	long getReissued() {
+		return reissued.sum();
+	}
+
+	/**
+	 * @return spawned workers that were replaced after they died
+	 */
+	long getRespawned() {
+		return respawned.sum();
+	}
+
+	long getCompleted() {
+		return leaseAmount - remaining.getCount();
+	}
+
+	/**
+	 * @return process of the i-th spawned worker (the current one after
+	 *         respawns)
+	 */
+	Process getWorker(int i) {
+		return workers.get(i);
+	}
+
+	long size() {
+		return list.size();
+	}
+
+	/**
+	 * Waits for the leases, respawns dead workers meanwhile.
+	 */
+	private void supervise() throws InterruptedException, ExecutionException {
+		long done = remaining.getCount();
+		long progress = System.currentTimeMillis();
+		while (!remaining.await(SUPERVISION_PERIOD, TimeUnit.MILLISECONDS)) {
+			respawnDeadWorkers();
+			final long count = remaining.getCount();
+			final long now = System.currentTimeMillis();
+			if (count != done) {
+				done = count;
+				progress = now;
+			} else if (now - progress > 2L * settings.leaseTimeout) {
+				throw new ExecutionException(new TimeoutException(
+						"No lease finished in " + 2L * settings.leaseTimeout + " ms, " + count + " leases left, " + connected.get() + " workers connected"));
+			}
+		}
+	}
+
+	private void respawnDeadWorkers() throws ExecutionException {
+		boolean alive = false;
+		for (int i = 0; i < workers.size(); ++i) {
+			if (workers.get(i).isAlive()) {
+				alive = true;
+			} else if (respawned.sum() < settings.maxRespawns) {
+				logger.warn("Worker " + i + " exited with " + workers.get(i).exitValue() + ", respawned");
+				try {
+					workers.set(i, spawnWorker());
+				} catch (IOException e) {
+					throw new ExecutionException(e);
+				}
+				respawned.increment();
+				alive = true;
+			}
+		}
+		if (!workers.isEmpty() && !alive && connected.get() == 0)
+			throw new ExecutionException(new IOException("All " + workers.size() + " workers are dead and " + settings.maxRespawns + " respawns are used"));
+	}
+
+	StrategySelector waitAndGetSelector() throws InterruptedException, ExecutionException {
+		boolean failed = true;
+		try {
+			supervise();
+			failed = false;
+		} finally {
+			try {
+				server.close();
+			} catch (IOException e) {
+				logger.error("Coordinator socket close failed", e);
+			}
+			acceptor.join();
+			for (Process worker : workers) {
+				if (failed)
+					worker.destroyForcibly();
+				else if (!worker.waitFor(10, TimeUnit.SECONDS))
+					worker.destroy();
+			}
+			if (temporaryStocks)
+				ColumnarStockStorage.delete(stocks);
+		}
+		final int[] digits = list.newDigits();
+		for (long index : result.indexes()) {
+			try {
+				selector.addStrategy(ExecutionSimulator.simulate(list.materialize(index, digits)));
+			} catch (Exception e) {
+				throw new ExecutionException(e);
+			}
+		}
+		return selector;
+	}
+
+}
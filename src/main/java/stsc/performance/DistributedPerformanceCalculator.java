@@ -0,0 +1,45 @@
+package stsc.performance;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.storage.AlgorithmsStorage;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * Throughput of {@link DistributedGridSearcher} for 1 .. availableProcessors
+ * worker processes on this host (each worker is a separate JVM started with
+ * the current classpath).
+ */
+class DistributedPerformanceCalculator {
+
+	private static Logger logger = LogManager.getLogger("DistributedPerformance");
+
+	private static void initialize() {
+		try {
+			AlgorithmsStorage.getInstance();
+			StockStorageMock.getStockStorage();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public static void main(String[] args) {
+		logger.debug("Process started");
+		initialize();
+		logger.debug("Algorithms and Stocks reader");
+		try {
+			final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+			settings.performanceForGridTest = args.length == 0 || !args[0].equals("full");
+			settings.threadsFrom = 1;
+			settings.threadsTo = Runtime.getRuntime().availableProcessors();
+			settings.leaseSize = settings.performanceForGridTest ? 4 : 10000;
+
+			System.out.println("Distributed Grid Search (workers, seconds, points/s, reissued leases, respawned workers)");
+			new PerformanceCalculator(settings).calculateDistributedThroughput(settings.startOfPeriod.plusYears(1));
+			logger.debug("Performance Calculator finished");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
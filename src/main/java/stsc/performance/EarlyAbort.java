@@ -0,0 +1,160 @@
+package stsc.performance;
+
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+
+import stsc.common.FromToPeriod;
+import stsc.general.statistic.MetricType;
+import stsc.general.statistic.Metrics;
+import stsc.general.strategy.TradingStrategy;
+
+/**
+ * Opt-in early abort of grid points that can not reach the top-K of a
+ * {@link ConcurrentTopKSelector}. A point is simulated over the first
+ * prefixPart of the period; maxLoss can only grow when the period is extended
+ * (the prefix run is the start of the full run), so when the selector cost is
+ * a {@link WeightedMetricCost} with negative weights on such metrics only, the
+ * weighted prefix metrics bound the full cost from above. The point is aborted
+ * when that bound is not above the selector threshold: the full result would
+ * be rejected by the selector too, so the search keeps the same top-K.
+ * <p>
+ * For any other cost no bound exists and prefixes are never simulated; they
+ * are also skipped while the selector has no threshold yet. Points that pass
+ * the check are simulated twice, over the prefix and over the full period.
+ * Counts aborted points, simulation-days saved by them and days spent on
+ * prefixes of points that were simulated completely anyway.
+ */
+final class EarlyAbort {
+
+	private static final long DAY = 24L * 60 * 60 * 1000;
+
+	private static final MetricType[] NON_DECREASING = { MetricType.maxLoss };
+
+	private final ConcurrentTopKSelector selector;
+	private final double prefixPart;
+	private final WeightedMetricCost cost;
+
+	private final LongAdder aborted = new LongAdder();
+	private final LongAdder savedDays = new LongAdder();
+	private final LongAdder prefixDays = new LongAdder();
+
+	/**
+	 * @param selector
+	 *            top-K selector of the search the points are aborted for
+	 */
+	EarlyAbort(ConcurrentTopKSelector selector, double prefixPart) {
+		this.selector = selector;
+		this.prefixPart = prefixPart;
+		this.cost = bounded(selector) ? (WeightedMetricCost) selector.getCostFunction() : null;
+	}
+
+	/**
+	 * @return true if prefix metrics bound the full cost of the selector
+	 */
+	static boolean bounded(ConcurrentTopKSelector selector) {
+		if (!(selector.getCostFunction() instanceof WeightedMetricCost))
+			return false;
+		final WeightedMetricCost cost = (WeightedMetricCost) selector.getCostFunction();
+		for (int m = 0; m < MetricVector.SIZE; ++m) {
+			if (cost.weight(m) != 0.0 && !(cost.weight(m) < 0.0 && nonDecreasing(m)))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean nonDecreasing(int metric) {
+		for (MetricType type : NON_DECREASING) {
+			if (type.ordinal() == metric)
+				return true;
+		}
+		return false;
+	}
+
+	ConcurrentTopKSelector getSelector() {
+		return selector;
+	}
+
+	/**
+	 * @return same grid over the first prefixPart of the list period
+	 */
+	IndexedGridList prefix(IndexedGridList list) {
+		final Date from = list.getPeriod().getFrom();
+		final Date to = list.getPeriod().getTo();
+		final long length = to.getTime() - from.getTime();
+		return list.withPeriod(new FromToPeriod(from, new Date(from.getTime() + (long) (length * prefixPart))));
+	}
+
+	/**
+	 * @return true if a prefix simulation can abort a point now
+	 */
+	boolean shouldCheck() {
+		return cost != null && selector.getThreshold() != Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * @return upper bound of the full period cost, positive infinity when a
+	 *         weighted metric is missing
+	 */
+	double upperBound(Metrics prefix) {
+		double result = 0.0;
+		for (MetricType type : NON_DECREASING) {
+			final double weight = cost.weight(type.ordinal());
+			if (weight == 0.0)
+				continue;
+			final Double value = prefix.getMetric(type);
+			if (value == null)
+				return Double.POSITIVE_INFINITY;
+			result += weight * value;
+		}
+		return result;
+	}
+
+	/**
+	 * Should be called only when {@link #shouldCheck()}.
+	 *
+	 * @param prefix
+	 *            result of the point over {@link #prefix(IndexedGridList)}
+	 * @return true if the full simulation should be skipped
+	 */
+	boolean abort(IndexedGridList list, TradingStrategy prefix) {
+		final long fullDays = days(list.getPeriod());
+		final long simulatedDays = (long) (fullDays * prefixPart);
+		if (upperBound(prefix.getMetrics()) <= selector.getThreshold()) {
+			aborted.increment();
+			savedDays.add(fullDays - simulatedDays);
+			return true;
+		}
+		prefixDays.add(simulatedDays);
+		return false;
+	}
+
+	private static long days(FromToPeriod period) {
+		return (period.getTo().getTime() - period.getFrom().getTime()) / DAY;
+	}
+
+	long getAborted() {
+		return aborted.sum();
+	}
+
+	long getSavedDays() {
+		return savedDays.sum();
+	}
+
+	long getPrefixDays() {
+		return prefixDays.sum();
+	}
+
+	/**
+	 * @return saved days minus prefix days of points that were not aborted,
+	 *         negative when the prefixes cost more than the aborts save
+	 */
+	long getNetSavedDays() {
+		return getSavedDays() - getPrefixDays();
+	}
+
+	@Override
+	public String toString() {
+		return "aborted: " + getAborted() + " saved days: " + getSavedDays() + " prefix days: " + getPrefixDays() + " net saved days: " + getNetSavedDays();
+	}
+
+}
@@ -0,0 +1,37 @@
+package stsc.performance;
+
+import stsc.common.BadSignalException;
+import stsc.common.algorithms.BadAlgorithmException;
+import stsc.general.simulator.Execution;
+import stsc.general.simulator.Simulator;
+import stsc.general.simulator.SimulatorImpl;
+import stsc.general.strategy.TradingStrategy;
+
+/**
+ * Simulation of a single execution, the unit of work of the searchers in this
+ * package (the library searchers do the same per execution internally).
+ */
+final class ExecutionSimulator {
+
+	private ExecutionSimulator() {
+	}
+
+	static TradingStrategy simulate(final Execution execution) throws BadAlgorithmException, BadSignalException {
+		return simulate(execution, SearchProfile.DISABLED);
+	}
+
+	/**
+	 * Records {@link SearchProfile.Phase#SIMULATION} (the day loop) and
+	 * {@link SearchProfile.Phase#METRICS} (statistics of the simulation).
+	 */
+	static TradingStrategy simulate(final Execution execution, final SearchProfile profile) throws BadAlgorithmException, BadSignalException {
+		final long simulation = profile.start();
+		final Simulator simulator = new SimulatorImpl(execution);
+		profile.record(SearchProfile.Phase.SIMULATION, simulation);
+		final long metrics = profile.start();
+		final TradingStrategy strategy = new TradingStrategy(execution, simulator.getMetrics());
+		profile.record(SearchProfile.Phase.METRICS, metrics);
+		return strategy;
+	}
+
+}
@@ -0,0 +1,52 @@
+package stsc.performance;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.storage.AlgorithmsStorage;
+import stsc.storage.mocks.StockStorageMock;
+
+class ExecutorPerformanceCalculator {
+
+	private static Logger logger = LogManager.getLogger("ExecutorPerformance");
+
+	private static void initialize() {
+		try {
+			AlgorithmsStorage.getInstance();
+			StockStorageMock.getStockStorage();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public static void main(String[] args) {
+		logger.debug("Process started");
+		initialize();
+		logger.debug("Algorithms and Stocks reader");
+		try {
+			final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+			settings.performanceForGridTest = true;
+			settings.shouldWarmUp = true;
+			settings.threadsFrom = 4;
+			settings.threadsTo = 4;
+			settings.calculationsForAverage = 1;
+			settings.printAdditionalInfo = true;
+			settings.printAvGainAndTime = true;
+
+			final SearcherType[] searcherTypes = { SearcherType.PARTITIONED_GRID_SEARCHER, SearcherType.INDEXED_GENETIC_SEARCHER };
+			for (SearcherType searcherType : searcherTypes) {
+				for (ExecutorType executorType : ExecutorType.values()) {
+					if (executorType == ExecutorType.VIRTUAL_THREAD && !ExecutorType.virtualThreadsSupported())
+						continue;
+					System.out.println(searcherType + " " + executorType);
+					settings.searcherType = searcherType;
+					settings.executorType = executorType;
+					new PerformanceCalculator(settings).calculateTimeStatistics();
+				}
+			}
+			logger.debug("Performance Calculator finished");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package stsc.performance;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution backend of the searchers of this package. Every backend runs at
+ * most threadAmount tasks at once, so results for the same threadAmount are
+ * comparable. Work-stealing backends get several (smaller) tasks per thread,
+ * so long simulations do not leave the other threads idle at the end of a
+ * search; {@link #toString()} names the task split.
+ */
+enum ExecutorType {
+	FIXED_THREAD_POOL(1), FORK_JOIN(16), VIRTUAL_THREAD(16);
+
+	final int tasksPerThread;
+
+	private ExecutorType(int tasksPerThread) {
+		this.tasksPerThread = tasksPerThread;
+	}
+
+	/**
+	 * {@link #VIRTUAL_THREAD} starts a new virtual thread per task; a task
+	 * first takes one of threadAmount semaphore permits, so at most
+	 * threadAmount tasks simulate at once while the rest wait parked (tasks
+	 * should not wait for other tasks of the same executor). On JDKs without
+	 * virtual threads (before 21) it falls back to {@link #FORK_JOIN}.
+	 */
+	ExecutorService newExecutor(int threadAmount) {
+		switch (this) {
+		case FORK_JOIN:
+			return new ForkJoinPool(threadAmount);
+		case VIRTUAL_THREAD:
+			final ExecutorService virtual = virtualThreadPerTaskExecutor();
+			return virtual != null ? new BoundedExecutor(virtual, threadAmount) : new ForkJoinPool(threadAmount);
+		default:
+			return Executors.newFixedThreadPool(threadAmount);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name() + " (" + tasksPerThread + " tasks per thread)";
+	}
+
+	static boolean virtualThreadsSupported() {
+		final ExecutorService executor = virtualThreadPerTaskExecutor();
+		if (executor == null)
+			return false;
+		executor.shutdown();
+		return true;
+	}
+
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor() through reflection, the
+	 * sources target Java 8.
+	 */
+	private static ExecutorService virtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Runs every task on the delegate once it holds one of the permits.
+	 */
+	private static final class BoundedExecutor extends AbstractExecutorService {
+
+		private final ExecutorService delegate;
+		private final Semaphore permits;
+
+		BoundedExecutor(ExecutorService delegate, int permits) {
+			this.delegate = delegate;
+			this.permits = new Semaphore(permits);
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			delegate.execute(() -> {
+				permits.acquireUninterruptibly();
+				try {
+					task.run();
+				} finally {
+					permits.release();
+				}
+			});
+		}
+
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import stsc.common.FromToPeriod;
+import stsc.common.storage.StockStorage;
+import stsc.storage.ThreadSafeStockStorage;
+
+/**
+ * Multi-fidelity screening of candidates: every candidate is first simulated
+ * cheaply, on a deterministic subsample of stockPart of the stocks (evenly
+ * spaced in name order) over the first periodPart of the period, and only the
+ * best promotionRate of the screened candidates get the full simulation.
+ * Counts screened and promoted candidates, every screened candidate that was
+ * not promoted is a full simulation avoided.
+ */
+final class FidelityScreening {
+
+	/**
+	 * Promoted candidates are kept in memory until their full simulation.
+	 */
+	static final int MAX_PROMOTIONS = 1 << 20;
+
+	private final double stockPart;
+	private final double periodPart;
+	private final double promotionRate;
+
+	private final LongAdder screened = new LongAdder();
+	private final LongAdder promoted = new LongAdder();
+
+	FidelityScreening(double stockPart, double periodPart, double promotionRate) {
+		if (stockPart <= 0.0 || stockPart > 1.0 || periodPart <= 0.0 || periodPart > 1.0 || promotionRate <= 0.0 || promotionRate > 1.0)
+			throw new IllegalArgumentException("Parts and promotion rate should be in (0, 1]");
+		this.stockPart = stockPart;
+		this.periodPart = periodPart;
+		this.promotionRate = promotionRate;
+	}
+
+	/**
+	 * @return same grid over the stock subsample and the first periodPart of
+	 *         the list period
+	 */
+	IndexedGridList screen(IndexedGridList list) {
+		final Date from = list.getPeriod().getFrom();
+		final long length = list.getPeriod().getTo().getTime() - from.getTime();
+		final FromToPeriod period = new FromToPeriod(from, new Date(from.getTime() + (long) (length * periodPart)));
+		return new IndexedGridList(list.getSpace(), subsample(list.getStockStorage(), stockPart), period);
+	}
+
+	/**
+	 * @return every 1/part-th stock in name order, the storage itself for part
+	 *         1.0
+	 */
+	static StockStorage subsample(StockStorage stockStorage, double part) {
+		if (part >= 1.0)
+			return stockStorage;
+		final List<String> names = new ArrayList<>(stockStorage.getStockNames());
+		Collections.sort(names);
+		final int amount = Math.max(1, (int) Math.round(names.size() * part));
+		final ThreadSafeStockStorage result = new ThreadSafeStockStorage();
+		for (int i = 0; i < amount; ++i) {
+			stockStorage.getStock(names.get((int) ((long) i * names.size() / amount))).ifPresent(result::updateStock);
+		}
+		return result;
+	}
+
+	/**
+	 * @return how many of candidates get the full simulation, at least one and
+	 *         at most {@link #MAX_PROMOTIONS}
+	 */
+	int promotions(long candidates) {
+		return (int) Math.min(MAX_PROMOTIONS, Math.max(1, (long) Math.ceil(candidates * promotionRate)));
+	}
+
+	void count(long screenedCandidates, long promotedCandidates) {
+		screened.add(screenedCandidates);
+		promoted.add(promotedCandidates);
+	}
+
+	long getScreened() {
+		return screened.sum();
+	}
+
+	long getPromoted() {
+		return promoted.sum();
+	}
+
+	/**
+	 * @return full simulations avoided by screening
+	 */
+	long getAvoided() {
+		return getScreened() - getPromoted();
+	}
+
+	/**
+	 * @return part of the exhaustive top-K found by the screened search
+	 */
+	static double agreement(List<Long> exhaustive, List<Long> screened) {
+		if (exhaustive.isEmpty())
+			return 1.0;
+		final Set<Long> found = new HashSet<>(screened);
+		int common = 0;
+		for (Long index : exhaustive) {
+			if (found.contains(index))
+				++common;
+		}
+		return (double) common / exhaustive.size();
+	}
+
+	@Override
+	public String toString() {
+		return "screened: " + getScreened() + " promoted: " + getPromoted() + " avoided: " + getAvoided();
+	}
+
+}
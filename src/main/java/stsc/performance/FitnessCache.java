@@ -0,0 +1,108 @@
+package stsc.performance;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrent cache of simulation results keyed by grid index, so
+ * individuals that genetic operators produce again are not re-simulated.
+ * Striped into segments, each a synchronized LinkedHashMap with its own part
+ * of the capacity.
+ */
+final class FitnessCache {
+
+	enum Eviction {
+		LRU, FIFO
+	}
+
+	static final class Fitness {
+		/**
+		 * {@link MetricVector}
+		 */
+		final double[] metrics;
+		final double cost;
+
+		Fitness(double[] metrics, double cost) {
+			this.metrics = metrics;
+			this.cost = cost;
+		}
+	}
+
+	private static final int SEGMENTS = 16;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private static final class Segment extends LinkedHashMap<Long, Fitness> {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		Segment(int capacity, boolean accessOrder) {
+			super(16, 0.75f, accessOrder);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Fitness> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	FitnessCache(int capacity, Eviction eviction) {
+		final int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; ++i) {
+			segments[i] = new Segment(segmentCapacity, eviction == Eviction.LRU);
+		}
+	}
+
+	private Segment segment(long index) {
+		final long h = index * 0x9E3779B97F4A7C15L;
+		return segments[(int) (h >>> 60)];
+	}
+
+	/**
+	 * @return cached fitness or null; counted as hit / miss
+	 */
+	Fitness get(long index) {
+		final Segment segment = segment(index);
+		final Fitness fitness;
+		synchronized (segment) {
+			fitness = segment.get(index);
+		}
+		if (fitness == null)
+			misses.increment();
+		else
+			hits.increment();
+		return fitness;
+	}
+
+	void put(long index, Fitness fitness) {
+		final Segment segment = segment(index);
+		synchronized (segment) {
+			segment.put(index, fitness);
+		}
+	}
+
+	long getHits() {
+		return hits.sum();
+	}
+
+	long getMisses() {
+		return misses.sum();
+	}
+
+	double hitRate() {
+		final long h = getHits();
+		final long total = h + getMisses();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "hits: " + getHits() + " misses: " + getMisses() + " hit rate: " + hitRate();
+	}
+
+}
@@ -1,5 +1,8 @@
 package stsc.performance;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -34,6 +37,13 @@ class GeneticParametersPerformanceCalculator {
 			settings.printAvGainAndTime = true;
 			settings.calculationsForAverage = 10;
 
+			if (args.length > 0 && args[0].equals("tune")) {
+				final double budgetSeconds = args.length > 1 ? Double.parseDouble(args[1]) : 600.0;
+				System.out.println("Tuner (maxSelectionIndex, populationSize, bestPart, crossoverPart, runs, time, avGain)");
+				new PerformanceCalculator(settings).tuneGeneticParameters(settings.startOfPeriod.plusYears(3), 4, budgetSeconds, 27);
+				return;
+			}
+
 			System.out.println("Size of stocks: " + stockStorage.getStockNames().size());
 			PerformanceCalculator.calculateAmountOfSimulations(stockStorage, settings);
 
@@ -41,8 +51,41 @@ class GeneticParametersPerformanceCalculator {
 				for (int u = 50; u <= 350; u += 50) {
 					settings.maxSelectionIndex = i;
 					settings.populationSize = u;
+					settings.scenario = "genetic " + i + " " + u;
 					new PerformanceCalculator(settings).calculateSmallStatistics();
 				}
+
+			settings.searcherType = SearcherType.INDEXED_GENETIC_SEARCHER;
+			final int[] cacheSizes = { 0, 100000 };
+			for (int i = 50; i <= 350; i += 50)
+				for (int u = 50; u <= 350; u += 50)
+					for (int cacheSize : cacheSizes) {
+						settings.maxSelectionIndex = i;
+						settings.populationSize = u;
+						settings.fitnessCacheSize = cacheSize;
+						settings.scenario = "genetic " + i + " " + u + " cache " + cacheSize;
+						System.out.print("cache " + cacheSize + " ");
+						new PerformanceCalculator(settings).calculateSmallStatistics();
+					}
+
+			System.out.println("Warm start (days, snapshot bytes, target cost, generations and seconds to reach it)");
+			settings.printAdditionalInfo = false;
+			final Path snapshotFile = Files.createTempFile("population", ".snapshot");
+			for (int i = 50; i <= 350; i += 100) {
+				settings.maxSelectionIndex = i;
+				settings.populationSize = i;
+				settings.scenario = "genetic " + i + " " + i;
+				new PerformanceCalculator(settings).calculateWarmStart(settings.startOfPeriod.plusYears(2), snapshotFile, 4);
+			}
+			Files.delete(snapshotFile);
+
+			System.out.println("Convergence (maxSelectionIndex, populationSize, fixed generations, seconds, avGain, stop reason, generations, seconds, avGain)");
+			for (int i = 50; i <= 350; i += 100) {
+				settings.maxSelectionIndex = i;
+				settings.populationSize = 100;
+				settings.scenario = "genetic " + i + " 100";
+				new PerformanceCalculator(settings).calculateConvergence(settings.startOfPeriod.plusYears(3), 4, 10, 0.0);
+			}
 			logger.debug("Performance Calculator finished");
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -0,0 +1,170 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import stsc.common.TimeTracker;
+
+/**
+ * Successive halving over genetic searcher parameters (maxSelectionIndex,
+ * populationSize, bestPart, crossoverPart) under a wall-clock budget: random
+ * configurations get one search each, then only the best 1/eta of them (by
+ * Pareto rank of mean time vs mean avGain, ties by avGain) get eta times more
+ * searches, and so on. Bad configurations are given up after their first
+ * rung. Every evaluated configuration stays available for
+ * {@link #paretoFront(List)}.
+ */
+final class GeneticTuner {
+
+	interface Evaluator {
+		PerformanceResult evaluate(Configuration configuration) throws Exception;
+	}
+
+	static final class Configuration {
+		final int maxSelectionIndex;
+		final int populationSize;
+		final double bestPart;
+		final double crossoverPart;
+
+		private int runs;
+		private double seconds;
+		private double avGain;
+
+		Configuration(int maxSelectionIndex, int populationSize, double bestPart, double crossoverPart) {
+			this.maxSelectionIndex = maxSelectionIndex;
+			this.populationSize = populationSize;
+			this.bestPart = bestPart;
+			this.crossoverPart = crossoverPart;
+		}
+
+		void add(double seconds, double avGain) {
+			this.runs += 1;
+			this.seconds += seconds;
+			this.avGain += avGain;
+		}
+
+		int getRuns() {
+			return runs;
+		}
+
+		double getSeconds() {
+			return runs == 0 ? Double.NaN : seconds / runs;
+		}
+
+		double getAvGain() {
+			return runs == 0 ? Double.NaN : avGain / runs;
+		}
+
+		boolean dominates(Configuration other) {
+			return getSeconds() <= other.getSeconds() && getAvGain() >= other.getAvGain()
+					&& (getSeconds() < other.getSeconds() || getAvGain() > other.getAvGain());
+		}
+
+		@Override
+		public String toString() {
+			return maxSelectionIndex + " " + populationSize + " " + bestPart + " " + crossoverPart;
+		}
+	}
+
+	private final Evaluator evaluator;
+	private final double budgetSeconds;
+	private final int eta;
+	private final Random random;
+
+	private final List<Configuration> evaluated = new ArrayList<>();
+
+	GeneticTuner(Evaluator evaluator, double budgetSeconds, int eta, long seed) {
+		this.evaluator = evaluator;
+		this.budgetSeconds = budgetSeconds;
+		this.eta = eta;
+		this.random = new Random(seed);
+	}
+
+	Configuration randomConfiguration() {
+		return new Configuration(50 * (1 + random.nextInt(7)), 50 * (1 + random.nextInt(7)), (50 + 2 * random.nextInt(25)) / 100.0,
+				(50 + 5 * random.nextInt(10)) / 100.0);
+	}
+
+	/**
+	 * @return configurations of the last finished rung, best first
+	 */
+	List<Configuration> tune(int configurations) throws Exception {
+		final long start = System.nanoTime();
+		List<Configuration> rung = new ArrayList<>();
+		for (int i = 0; i < configurations; ++i) {
+			rung.add(randomConfiguration());
+		}
+		evaluated.addAll(rung);
+		int runs = 1;
+		while (true) {
+			for (Configuration configuration : rung) {
+				while (configuration.getRuns() < runs) {
+					if ((System.nanoTime() - start) / 1e9 > budgetSeconds)
+						return rank(rung);
+					final PerformanceResult result = evaluator.evaluate(configuration);
+					configuration.add(TimeTracker.lengthInSeconds(result.timeTracker.length()), result.sumAvGainForBest);
+				}
+			}
+			rung = rank(rung);
+			if (rung.size() <= 1)
+				return rung;
+			rung = new ArrayList<>(rung.subList(0, (rung.size() + eta - 1) / eta));
+			runs *= eta;
+		}
+	}
+
+	List<Configuration> getEvaluated() {
+		final List<Configuration> result = new ArrayList<>();
+		for (Configuration configuration : evaluated) {
+			if (configuration.getRuns() > 0)
+				result.add(configuration);
+		}
+		return result;
+	}
+
+	/**
+	 * Non-dominated sorting: Pareto rank first, higher avGain first inside a
+	 * rank. Configurations without runs go last.
+	 */
+	static List<Configuration> rank(List<Configuration> configurations) {
+		final List<Configuration> rest = new ArrayList<>();
+		final List<Configuration> unevaluated = new ArrayList<>();
+		for (Configuration configuration : configurations) {
+			(configuration.getRuns() > 0 ? rest : unevaluated).add(configuration);
+		}
+		final List<Configuration> result = new ArrayList<>();
+		while (!rest.isEmpty()) {
+			final List<Configuration> front = paretoFront(rest);
+			front.sort(Comparator.comparingDouble(Configuration::getAvGain).reversed());
+			result.addAll(front);
+			rest.removeAll(front);
+		}
+		result.addAll(unevaluated);
+		return result;
+	}
+
+	/**
+	 * @return configurations not dominated in (lower mean time, higher mean
+	 *         avGain), by time
+	 */
+	static List<Configuration> paretoFront(List<Configuration> configurations) {
+		final List<Configuration> result = new ArrayList<>();
+		for (Configuration candidate : configurations) {
+			boolean dominated = false;
+			for (Configuration other : configurations) {
+				if (other.dominates(candidate)) {
+					dominated = true;
+					break;
+				}
+			}
+			if (!dominated)
+				result.add(candidate);
+		}
+		Collections.sort(result, Comparator.comparingDouble(Configuration::getSeconds));
+		return result;
+	}
+
+}
@@ -109,7 +109,7 @@ final class GetBestStatistics {
 				df.format(s.getMetric(MetricType.winProb)) + "\t" + //
 				df.format(s.getMetric(MetricType.freq)) + "\t" + //
 				df.format(s.getMetric(MetricType.kelly)) + "\t\t" + //
-				ts.getSettings().stringHashCode());
+				SettingsFingerprint.fingerprint(ts.getSettings()));
 		return false;
 	}
 
@@ -0,0 +1,104 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Genetic operators over grid indexes of a {@link GridSpace}: a genome is the
+ * digit vector of an index, one gene per parameter. Thread safe: scratch
+ * digits are per thread and every caller passes its own SplittableRandom, so
+ * threads share nothing mutable. Populations are built by
+ * {@link #fill(long[], SplittableRandom, ExecutorService, Breeder)} in chunks
+ * with randoms split from one seeded root, which keeps them reproducible for
+ * any amount of threads.
+ */
+final class GridGeneticOperators {
+
+	static final int CHUNK_SIZE = 64;
+
+	interface Breeder {
+		long breed(int individual, SplittableRandom random);
+	}
+
+	private final GridSpace space;
+	private final ThreadLocal<int[]> left;
+	private final ThreadLocal<int[]> right;
+
+	GridGeneticOperators(GridSpace space) {
+		this.space = space;
+		this.left = ThreadLocal.withInitial(() -> new int[space.dimensions()]);
+		this.right = ThreadLocal.withInitial(() -> new int[space.dimensions()]);
+	}
+
+	long generateRandom(SplittableRandom random) {
+		final int[] digits = left.get();
+		for (int i = 0; i < digits.length; ++i) {
+			digits[i] = random.nextInt(space.radix(i));
+		}
+		return space.encode(digits);
+	}
+
+	/**
+	 * Uniform crossover: every gene is taken from one of the parents.
+	 */
+	long merge(long leftIndex, long rightIndex, SplittableRandom random) {
+		final int[] l = left.get();
+		final int[] r = right.get();
+		space.decode(leftIndex, l);
+		space.decode(rightIndex, r);
+		for (int i = 0; i < l.length; ++i) {
+			if (random.nextBoolean())
+				l[i] = r[i];
+		}
+		return space.encode(l);
+	}
+
+	/**
+	 * Replaces one random gene with a random value.
+	 */
+	long mutate(long index, SplittableRandom random) {
+		final int[] digits = left.get();
+		space.decode(index, digits);
+		final int gene = random.nextInt(digits.length);
+		digits[gene] = random.nextInt(space.radix(gene));
+		return space.encode(digits);
+	}
+
+	/**
+	 * Fills population with breeder results, {@link #CHUNK_SIZE} individuals
+	 * per chunk. Chunk randoms are split from root in chunk order before any
+	 * chunk runs, so the result is the same with or without executor.
+	 *
+	 * @param executor
+	 *            runs the chunks, null to run them on the calling thread
+	 */
+	static void fill(long[] population, SplittableRandom root, ExecutorService executor, Breeder breeder) throws InterruptedException, ExecutionException {
+		final int chunks = (population.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		final SplittableRandom[] randoms = new SplittableRandom[chunks];
+		for (int c = 0; c < chunks; ++c) {
+			randoms[c] = root.split();
+		}
+		final List<Future<?>> tasks = new ArrayList<>(chunks);
+		for (int c = 0; c < chunks; ++c) {
+			final int chunk = c;
+			final Runnable task = () -> {
+				final int to = Math.min(population.length, (chunk + 1) * CHUNK_SIZE);
+				for (int i = chunk * CHUNK_SIZE; i < to; ++i) {
+					population[i] = breeder.breed(i, randoms[chunk]);
+				}
+			};
+			if (executor == null)
+				task.run();
+			else
+				tasks.add(executor.submit(task));
+		}
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+package stsc.performance;
+
+import java.util.Collections;
+import java.util.List;
+
+import stsc.general.simulator.multistarter.AlgorithmSettingsIteratorFactory;
+import stsc.general.simulator.multistarter.BadParameterException;
+import stsc.general.simulator.multistarter.MpDouble;
+import stsc.general.simulator.multistarter.MpInteger;
+import stsc.general.simulator.multistarter.MpString;
+import stsc.general.simulator.multistarter.MpSubExecution;
+
+/**
+ * One dimension of a {@link GridSpace}. Mirrors the Mp* multistarter
+ * parameters, but its values are addressable by index, so a grid point can be
+ * stored as a number and turned into Mp* parameters only when needed.
+ */
+abstract class GridParameter {
+
+	final String name;
+
+	GridParameter(String name) {
+		this.name = name;
+	}
+
+	abstract int size();
+
+	abstract void addTo(AlgorithmSettingsIteratorFactory factory) throws BadParameterException;
+
+	abstract void addValueTo(AlgorithmSettingsIteratorFactory factory, int index) throws BadParameterException;
+
+	/**
+	 * @return 64-bit hash of the value at index, same in every JVM (see
+	 *         {@link SettingsFingerprint})
+	 */
+	abstract long fingerprint(int index);
+
+	static final class DoubleParameter extends GridParameter {
+		static final int FINGERPRINT_STEP_PARTS = 1024;
+
+		private final double from;
+		private final double to;
+		private final double step;
+		private final double[] values;
+
+		DoubleParameter(String name, double from, double to, double step) {
+			super(name);
+			this.from = from;
+			this.to = to;
+			this.step = step;
+			int size = 0;
+			for (double v = from; v < to; v += step) {
+				++size;
+			}
+			this.values = new double[size];
+			int i = 0;
+			for (double v = from; v < to; v += step) {
+				values[i++] = v;
+			}
+		}
+
+		double value(int index) {
+			return values[index];
+		}
+
+		@Override
+		int size() {
+			return values.length;
+		}
+
+		@Override
+		void addTo(AlgorithmSettingsIteratorFactory factory) throws BadParameterException {
+			factory.add(new MpDouble(name, from, to, step));
+		}
+
+		@Override
+		void addValueTo(AlgorithmSettingsIteratorFactory factory, int index) throws BadParameterException {
+			factory.add(new MpDouble(name, values[index], values[index] + step / 2, step));
+		}
+
+		/**
+		 * Values are accumulated from from, so the same setting reached from
+		 * another from can differ in the last bits; it is hashed as a multiple
+		 * of 1 / {@link #FINGERPRINT_STEP_PARTS} step together with the step.
+		 */
+		@Override
+		long fingerprint(int index) {
+			final long stepHash = SettingsFingerprint.mix(Double.doubleToLongBits(step + 0.0));
+			return SettingsFingerprint.mix(stepHash + Math.round(values[index] / step * FINGERPRINT_STEP_PARTS));
+		}
+	}
+
+	static final class IntegerParameter extends GridParameter {
+		private final int from;
+		private final int to;
+		private final int step;
+
+		IntegerParameter(String name, int from, int to, int step) {
+			super(name);
+			this.from = from;
+			this.to = to;
+			this.step = step;
+		}
+
+		int value(int index) {
+			return from + index * step;
+		}
+
+		@Override
+		int size() {
+			return (to - from + step - 1) / step;
+		}
+
+		@Override
+		void addTo(AlgorithmSettingsIteratorFactory factory) throws BadParameterException {
+			factory.add(new MpInteger(name, from, to, step));
+		}
+
+		@Override
+		void addValueTo(AlgorithmSettingsIteratorFactory factory, int index) throws BadParameterException {
+			factory.add(new MpInteger(name, value(index), value(index) + 1, 1));
+		}
+
+		@Override
+		long fingerprint(int index) {
+			return SettingsFingerprint.mix(value(index));
+		}
+	}
+
+	static final class StringParameter extends GridParameter {
+		private final List<String> values;
+
+		StringParameter(String name, List<String> values) {
+			super(name);
+			this.values = values;
+		}
+
+		String value(int index) {
+			return values.get(index);
+		}
+
+		@Override
+		int size() {
+			return values.size();
+		}
+
+		@Override
+		void addTo(AlgorithmSettingsIteratorFactory factory) throws BadParameterException {
+			factory.add(new MpString(name, values));
+		}
+
+		@Override
+		void addValueTo(AlgorithmSettingsIteratorFactory factory, int index) throws BadParameterException {
+			factory.add(new MpString(name, Collections.singletonList(values.get(index))));
+		}
+
+		@Override
+		long fingerprint(int index) {
+			return SettingsFingerprint.hash(values.get(index));
+		}
+	}
+
+	static final class SubExecutionParameter extends GridParameter {
+		private final List<String> values;
+
+		SubExecutionParameter(String name, List<String> values) {
+			super(name);
+			this.values = values;
+		}
+
+		String value(int index) {
+			return values.get(index);
+		}
+
+		@Override
+		int size() {
+			return values.size();
+		}
+
+		@Override
+		void addTo(AlgorithmSettingsIteratorFactory factory) throws BadParameterException {
+			factory.add(new MpSubExecution(name, values));
+		}
+
+		@Override
+		void addValueTo(AlgorithmSettingsIteratorFactory factory, int index) throws BadParameterException {
+			factory.add(new MpSubExecution(name, Collections.singletonList(values.get(index))));
+		}
+
+		@Override
+		long fingerprint(int index) {
+			return SettingsFingerprint.hash(values.get(index));
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import stsc.common.algorithms.BadAlgorithmException;
+import stsc.general.simulator.multistarter.AlgorithmSettingsIteratorFactory;
+import stsc.general.simulator.multistarter.BadParameterException;
+import stsc.general.simulator.multistarter.SimulatorSettingsFactory;
+
+/**
+ * Description of a multistarter parameter space (stock and eod algorithms with
+ * their parameters). Every grid point is a long index in [0, size()), decoded
+ * as a mixed-radix number with one digit per {@link GridParameter}; the last
+ * parameter of the last algorithm is the fastest changing digit.
+ */
+final class GridSpace {
+
+	static final class Algorithm {
+		final boolean stock;
+		final String executionName;
+		final String algorithmName;
+		final List<GridParameter> parameters;
+
+		private Algorithm(boolean stock, String executionName, String algorithmName, List<GridParameter> parameters) {
+			this.stock = stock;
+			this.executionName = executionName;
+			this.algorithmName = algorithmName;
+			this.parameters = parameters;
+		}
+	}
+
+	private final List<Algorithm> algorithms = new ArrayList<>();
+	private final List<GridParameter> parameters = new ArrayList<>();
+	private int[] radix = new int[0];
+
+	GridSpace addStock(String executionName, String algorithmName, GridParameter... parameters) {
+		return add(true, executionName, algorithmName, parameters);
+	}
+
+	GridSpace addEod(String executionName, String algorithmName, GridParameter... parameters) {
+		return add(false, executionName, algorithmName, parameters);
+	}
+
+	private GridSpace add(boolean stock, String executionName, String algorithmName, GridParameter... parameters) {
+		final List<GridParameter> list = Collections.unmodifiableList(Arrays.asList(parameters));
+		algorithms.add(new Algorithm(stock, executionName, algorithmName, list));
+		this.parameters.addAll(list);
+		radix = new int[this.parameters.size()];
+		for (int i = 0; i < radix.length; ++i) {
+			radix[i] = this.parameters.get(i).size();
+		}
+		return this;
+	}
+
+	List<Algorithm> getAlgorithms() {
+		return Collections.unmodifiableList(algorithms);
+	}
+
+	int dimensions() {
+		return radix.length;
+	}
+
+	int radix(int dimension) {
+		return radix[dimension];
+	}
+
+	GridParameter getParameter(int dimension) {
+		return parameters.get(dimension);
+	}
+
+	/**
+	 * @return dimension of the named parameter of the named execution, -1 if
+	 *         there is no such parameter
+	 */
+	int dimension(String executionName, String parameterName) {
+		int dimension = 0;
+		for (Algorithm algorithm : algorithms) {
+			for (GridParameter parameter : algorithm.parameters) {
+				if (algorithm.executionName.equals(executionName) && parameter.name.equals(parameterName))
+					return dimension;
+				++dimension;
+			}
+		}
+		return -1;
+	}
+
+	long size() {
+		long result = radix.length == 0 ? 0 : 1;
+		for (int r : radix) {
+			result *= r;
+		}
+		return result;
+	}
+
+	/**
+	 * @param digits
+	 *            scratch array of {@link #dimensions()} length, filled with
+	 *            per-parameter value indexes
+	 */
+	void decode(long index, int[] digits) {
+		for (int i = radix.length - 1; i >= 0; --i) {
+			digits[i] = (int) (index % radix[i]);
+			index /= radix[i];
+		}
+	}
+
+	long encode(int[] digits) {
+		long index = 0;
+		for (int i = 0; i < radix.length; ++i) {
+			index = index * radix[i] + digits[i];
+		}
+		return index;
+	}
+
+	/**
+	 * Adds whole parameter ranges - the factory enumerates all
+	 * {@link #size()} points.
+	 */
+	<T> void fill(SimulatorSettingsFactory<T> factory) throws BadParameterException, BadAlgorithmException {
+		for (Algorithm algorithm : algorithms) {
+			final AlgorithmSettingsIteratorFactory algorithmFactory = new AlgorithmSettingsIteratorFactory();
+			for (GridParameter parameter : algorithm.parameters) {
+				parameter.addTo(algorithmFactory);
+			}
+			addAlgorithm(factory, algorithm, algorithmFactory);
+		}
+	}
+
+	/**
+	 * Adds one value per parameter - the factory enumerates exactly the point
+	 * described by digits.
+	 */
+	<T> void fillPoint(SimulatorSettingsFactory<T> factory, int[] digits) throws BadParameterException, BadAlgorithmException {
+		int dimension = 0;
+		for (Algorithm algorithm : algorithms) {
+			final AlgorithmSettingsIteratorFactory algorithmFactory = new AlgorithmSettingsIteratorFactory();
+			for (GridParameter parameter : algorithm.parameters) {
+				parameter.addValueTo(algorithmFactory, digits[dimension++]);
+			}
+			addAlgorithm(factory, algorithm, algorithmFactory);
+		}
+	}
+
+	private static <T> void addAlgorithm(SimulatorSettingsFactory<T> factory, Algorithm algorithm, AlgorithmSettingsIteratorFactory algorithmFactory)
+			throws BadAlgorithmException {
+		if (algorithm.stock)
+			factory.addStock(algorithm.executionName, algorithm.algorithmName, algorithmFactory);
+		else
+			factory.addEod(algorithm.executionName, algorithm.algorithmName, algorithmFactory);
+	}
+
+}
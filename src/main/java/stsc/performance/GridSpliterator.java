@@ -0,0 +1,66 @@
+package stsc.performance;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Walks grid indexes [from, to) of an {@link IndexedGridList}; splitting
+ * halves the range, so every worker owns its slice and no cursor is shared.
+ */
+final class GridSpliterator implements Spliterator.OfLong {
+
+	private long from;
+	private final long to;
+
+	GridSpliterator(long from, long to) {
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * @return i-th of n contiguous slices of [0, size)
+	 */
+	static GridSpliterator slice(long size, int i, int n) {
+		return new GridSpliterator(size * i / n, size * (i + 1) / n);
+	}
+
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if (from >= to) {
+			return false;
+		}
+		action.accept(from++);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(LongConsumer action) {
+		final long end = to;
+		for (long i = from; i < end; ++i) {
+			action.accept(i);
+		}
+		from = end;
+	}
+
+	@Override
+	public GridSpliterator trySplit() {
+		final long middle = (from + to) >>> 1;
+		if (middle <= from) {
+			return null;
+		}
+		final GridSpliterator prefix = new GridSpliterator(from, middle);
+		from = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return to - from;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+	}
+
+}
@@ -0,0 +1,82 @@
+package stsc.performance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.general.statistic.MetricType;
+
+/**
+ * Worker process of {@link DistributedGridSearcher}: connects to the
+ * coordinator (host, port arguments), receives the grid description, the
+ * {@link ColumnarStockStorage} directory of the coordinator stocks and the
+ * {@link WeightedMetricCost} weights and then simulates leases ([from, to)
+ * index ranges) one by one, answering each with the {@link IndexTopK} of the
+ * lease. Exits when the coordinator sends no more leases or the connection is
+ * lost.
+ */
+final class GridWorker {
+
+	private static Logger logger = LogManager.getLogger("GridWorker");
+
+	private GridWorker() {
+	}
+
+	static void work(String host, int port) throws Exception {
+		try (Socket socket = new Socket(host, port)) {
+			final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			final boolean smallSpace = input.readBoolean();
+			final int openTypesSize = input.readInt();
+			final List<String> openTypes = new ArrayList<>(openTypesSize);
+			for (int i = 0; i < openTypesSize; ++i) {
+				openTypes.add(input.readUTF());
+			}
+			final String periodFrom = input.readUTF();
+			final String periodTo = input.readUTF();
+			final String stocks = input.readUTF();
+			final int storedStrategyAmount = input.readInt();
+			final WeightedMetricCost costFunction = new WeightedMetricCost();
+			for (MetricType type : MetricType.values()) {
+				costFunction.withParameter(type, input.readDouble());
+			}
+
+			final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(smallSpace, ColumnarStockStorage.open(Paths.get(stocks)), openTypes,
+					periodFrom, periodTo);
+			final int[] digits = list.newDigits();
+			while (true) {
+				final long from = input.readLong();
+				final long to = input.readLong();
+				if (from < 0)
+					return;
+				final IndexTopK result = new IndexTopK(storedStrategyAmount);
+				new GridSpliterator(from, to).forEachRemaining((long index) -> {
+					try {
+						result.add(index, costFunction.cost(ExecutionSimulator.simulate(list.materialize(index, digits)).getMetrics()));
+					} catch (Exception e) {
+						logger.error("Grid point " + index + " failed", e);
+					}
+				});
+				result.writeTo(output);
+				output.flush();
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		try {
+			work(args[0], Integer.parseInt(args[1]));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+}
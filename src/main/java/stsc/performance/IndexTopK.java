@@ -0,0 +1,146 @@
+package stsc.performance;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded top-K of grid indexes by cost. Lets workers exchange search results
+ * as (index, cost) pairs: every process has the same {@link GridSpace}, so an
+ * index is enough to simulate the strategy again. The min-heap is kept in two
+ * primitive arrays that grow with the kept amount up to the bound, 16 bytes
+ * per entry and no allocation per add, so large bounds (screening promotions)
+ * cost only as much as is actually kept.
+ */
+final class IndexTopK {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int size;
+	private long[] indexes;
+	private double[] costs;
+	private int amount;
+
+	IndexTopK(int size) {
+		this.size = size;
+		this.indexes = new long[Math.min(size, INITIAL_CAPACITY)];
+		this.costs = new double[indexes.length];
+	}
+
+	void add(long index, double cost) {
+		if (size == 0 || amount == size && cost <= costs[0])
+			return;
+		if (amount == size) {
+			indexes[0] = index;
+			costs[0] = cost;
+			siftDown(0);
+			return;
+		}
+		if (amount == indexes.length) {
+			final int capacity = (int) Math.min(size, 2L * indexes.length);
+			indexes = Arrays.copyOf(indexes, capacity);
+			costs = Arrays.copyOf(costs, capacity);
+		}
+		indexes[amount] = index;
+		costs[amount] = cost;
+		siftUp(amount++);
+	}
+
+	void addAll(IndexTopK other) {
+		for (int i = 0; i < other.amount; ++i) {
+			add(other.indexes[i], other.costs[i]);
+		}
+	}
+
+	int size() {
+		return amount;
+	}
+
+	/**
+	 * @return indexes, best cost first
+	 */
+	long[] bestIndexes() {
+		final IndexTopK heap = new IndexTopK(amount);
+		heap.addAll(this);
+		final long[] result = new long[amount];
+		for (int i = amount - 1; i >= 0; --i) {
+			result[i] = heap.indexes[0];
+			heap.removeFirst();
+		}
+		return result;
+	}
+
+	/**
+	 * @return indexes, best cost first
+	 */
+	List<Long> indexes() {
+		final long[] best = bestIndexes();
+		final List<Long> result = new ArrayList<>(best.length);
+		for (long index : best) {
+			result.add(index);
+		}
+		return result;
+	}
+
+	private void removeFirst() {
+		--amount;
+		indexes[0] = indexes[amount];
+		costs[0] = costs[amount];
+		siftDown(0);
+	}
+
+	private void siftUp(int position) {
+		final long index = indexes[position];
+		final double cost = costs[position];
+		while (position > 0) {
+			final int parent = (position - 1) >>> 1;
+			if (costs[parent] <= cost)
+				break;
+			indexes[position] = indexes[parent];
+			costs[position] = costs[parent];
+			position = parent;
+		}
+		indexes[position] = index;
+		costs[position] = cost;
+	}
+
+	private void siftDown(int position) {
+		final long index = indexes[position];
+		final double cost = costs[position];
+		final int half = amount >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			if (child + 1 < amount && costs[child + 1] < costs[child])
+				++child;
+			if (cost <= costs[child])
+				break;
+			indexes[position] = indexes[child];
+			costs[position] = costs[child];
+			position = child;
+		}
+		indexes[position] = index;
+		costs[position] = cost;
+	}
+
+	void writeTo(DataOutput output) throws IOException {
+		output.writeInt(amount);
+		for (int i = 0; i < amount; ++i) {
+			output.writeLong(indexes[i]);
+			output.writeDouble(costs[i]);
+		}
+	}
+
+	static IndexTopK readFrom(DataInput input, int size) throws IOException {
+		final IndexTopK result = new IndexTopK(size);
+		final int amount = input.readInt();
+		for (int i = 0; i < amount; ++i) {
+			final long index = input.readLong();
+			result.add(index, input.readDouble());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,651 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.general.simulator.ExecutionImpl;
+import stsc.general.statistic.cost.function.CostFunction;
+import stsc.general.strategy.TradingStrategy;
+import stsc.general.strategy.selector.StrategySelector;
+
+/**
+ * Genetic search over an {@link IndexedGridList}: individuals are grid indexes
+ * (see {@link GridGeneticOperators}), every individual of a population is
+ * simulated as a separate task of the configured {@link ExecutorType}. Each
+ * population keeps the bestPart of the previous one as parents, crossoverPart
+ * of it is produced by crossover and the rest by mutation. Equal individuals of
+ * one population are simulated once, an optional {@link FitnessCache} does the
+ * same across populations. A {@link PopulationSnapshot} of a previous search
+ * can seed the first population. Besides maxPopulationsAmount the search can
+ * stop on a plateau of the best or mean population cost, on a target cost or
+ * on a deadline, see {@link #getStopReason()}. With a {@link FidelityScreening}
+ * only the promoted best of every population are simulated fully. Populations are reproducible from
+ * the seed, also when they are built in parallel on the search executor.
+ * Started by {@link Builder#build()}, like StrategyGeneticSearcher.
+ */
+final class IndexedGeneticSearcher {
+
+	private static Logger logger = LogManager.getLogger("IndexedGeneticSearcher");
+
+	enum PlateauCost {
+		BEST, MEAN
+	}
+
+	enum StopReason {
+		MAX_POPULATIONS, PLATEAU, TARGET_COST, DEADLINE
+	}
+
+	interface Evaluator {
+		FitnessCache.Fitness evaluate(long index);
+	}
+
+	static final class Builder {
+		private IndexedGridList list;
+		private StrategySelector selector;
+		private ConcurrentTopKSelector topKSelector;
+		private CostFunction costFunction = WeightedMetricCost.defaultWeights();
+		private int threadAmount = 4;
+		private ExecutorType executorType = ExecutorType.FIXED_THREAD_POOL;
+		private int maxPopulationsAmount = 100;
+		private int populationSize = 100;
+		private double bestPart = 0.94;
+		private double crossoverPart = 0.86;
+		private long seed = System.nanoTime();
+		private FitnessCache fitnessCache;
+		private PopulationSnapshot warmStart;
+		private int snapshotBestSize;
+		private SearchProfile profile = SearchProfile.DISABLED;
+		private PlateauCost plateauCost = PlateauCost.BEST;
+		private int plateauGenerations = 0;
+		private double plateauEpsilon = 0.0;
+		private double targetCost = Double.POSITIVE_INFINITY;
+		private long deadlineMillis = Long.MAX_VALUE;
+		private boolean parallelPopulation;
+		private FidelityScreening screening;
+		private ResultStore resultStore;
+		private Evaluator evaluator;
+
+		Builder withIndexedGridList(IndexedGridList list) {
+			this.list = list;
+			return this;
+		}
+
+		Builder withStrategySelector(StrategySelector selector) {
+			this.selector = selector;
+			return this;
+		}
+
+		/**
+		 * Simulated individuals go to the lock-free selector, its top-K is
+		 * merged into the strategy selector when the search is over.
+		 */
+		Builder withTopKSelector(ConcurrentTopKSelector topKSelector) {
+			this.topKSelector = topKSelector;
+			return this;
+		}
+
+		Builder withPopulationCostFunction(CostFunction costFunction) {
+			this.costFunction = costFunction;
+			return this;
+		}
+
+		Builder withThreadAmount(int threadAmount) {
+			this.threadAmount = threadAmount;
+			return this;
+		}
+
+		Builder withExecutorType(ExecutorType executorType) {
+			this.executorType = executorType;
+			return this;
+		}
+
+		Builder withMaxPopulationsAmount(int maxPopulationsAmount) {
+			this.maxPopulationsAmount = maxPopulationsAmount;
+			return this;
+		}
+
+		Builder withPopulationSize(int populationSize) {
+			this.populationSize = populationSize;
+			return this;
+		}
+
+		Builder withBestPart(double bestPart) {
+			this.bestPart = bestPart;
+			return this;
+		}
+
+		Builder withCrossoverPart(double crossoverPart) {
+			this.crossoverPart = crossoverPart;
+			return this;
+		}
+
+		Builder withSeed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * Individuals found in the cache are not simulated again (and not
+		 * added to the selector again).
+		 */
+		Builder withFitnessCache(FitnessCache fitnessCache) {
+			this.fitnessCache = fitnessCache;
+			return this;
+		}
+
+		/**
+		 * The first population starts with the best individuals of the
+		 * snapshot, then its population, random individuals fill the rest.
+		 * The snapshot should be taken over the same grid space (the period
+		 * may differ).
+		 */
+		Builder withWarmStart(PopulationSnapshot warmStart) {
+			this.warmStart = warmStart;
+			return this;
+		}
+
+		/**
+		 * @param snapshotBestSize
+		 *            best individuals kept for {@link #getSnapshot()}, 0 to
+		 *            not track them
+		 */
+		Builder withSnapshotBestSize(int snapshotBestSize) {
+			this.snapshotBestSize = snapshotBestSize;
+			return this;
+		}
+
+		/**
+		 * Stop when the best (best so far) or mean population cost did not
+		 * improve by more than epsilon over the last generations.
+		 */
+		Builder withPlateau(PlateauCost plateauCost, int generations, double epsilon) {
+			this.plateauCost = plateauCost;
+			this.plateauGenerations = generations;
+			this.plateauEpsilon = epsilon;
+			return this;
+		}
+
+		/**
+		 * Stop after the generation where some individual reached targetCost.
+		 */
+		Builder withTargetCost(double targetCost) {
+			this.targetCost = targetCost;
+			return this;
+		}
+
+		/**
+		 * Stop after the generation that ended later than deadlineMillis after
+		 * the search start.
+		 */
+		Builder withDeadline(long deadlineMillis) {
+			this.deadlineMillis = deadlineMillis;
+			return this;
+		}
+
+		Builder withSearchProfile(SearchProfile profile) {
+			this.profile = profile;
+			return this;
+		}
+
+		/**
+		 * Build populations (random individuals, crossover and mutation) in
+		 * chunks on the search executor, see
+		 * {@link GridGeneticOperators#fill(long[], SplittableRandom, ExecutorService, GridGeneticOperators.Breeder)}.
+		 * Populations are the same as without it.
+		 */
+		Builder withParallelPopulation(boolean parallelPopulation) {
+			this.parallelPopulation = parallelPopulation;
+			return this;
+		}
+
+		/**
+		 * Distinct individuals of every population that are not in the
+		 * fitness cache are screened first, the ones not promoted get cost
+		 * NEGATIVE_INFINITY (as failed simulations) and never reach the
+		 * selector or the fitness cache. Cached individuals keep their cached
+		 * fitness.
+		 */
+		Builder withScreening(FidelityScreening screening) {
+			this.screening = screening;
+			return this;
+		}
+
+		/**
+		 * Every simulated individual is appended to the store (fingerprint,
+		 * index, metrics); fitness cache hits are not simulated and not
+		 * appended again.
+		 */
+		Builder withResultStore(ResultStore resultStore) {
+			this.resultStore = resultStore;
+			return this;
+		}
+
+		/**
+		 * Replaces the simulation of an individual missing in the fitness
+		 * cache (selector, cache insertion and result store included), lets
+		 * tests drive the search with known costs.
+		 */
+		Builder withEvaluator(Evaluator evaluator) {
+			this.evaluator = evaluator;
+			return this;
+		}
+
+		IndexedGeneticSearcher build() {
+			return new IndexedGeneticSearcher(this);
+		}
+	}
+
+	static Builder getBuilder() {
+		return new Builder();
+	}
+
+	private final IndexedGridList list;
+	private final StrategySelector selector;
+	private final ConcurrentTopKSelector topKSelector;
+	private final CostFunction costFunction;
+	private final int maxPopulationsAmount;
+	private final int populationSize;
+	private final double bestPart;
+	private final double crossoverPart;
+	private final FitnessCache fitnessCache;
+	private final PopulationSnapshot warmStart;
+	private final int snapshotBestSize;
+	private final SearchProfile profile;
+	private final PlateauCost plateauCost;
+	private final int plateauGenerations;
+	private final double plateauEpsilon;
+	private final double targetCost;
+	private final long deadlineNanos;
+
+	private final SplittableRandom random;
+	private final GridGeneticOperators operators;
+	private final ExecutorService executor;
+	private final ExecutorService populationExecutor;
+	private final FidelityScreening screening;
+	private final IndexedGridList screeningList;
+	private final ResultStore resultStore;
+	private final SettingsFingerprint fingerprint;
+	private final Evaluator evaluator;
+	private final ThreadLocal<int[]> digits;
+	private final List<ResultStore.Appender> appenders = new ArrayList<>();
+	private final ThreadLocal<ResultStore.Appender> appender;
+	private final Thread search;
+
+	private volatile Exception failure;
+
+	private final PriorityQueue<PopulationSnapshot.Individual> best = new PriorityQueue<>((l, r) -> Double.compare(l.cost, r.cost));
+	private final Set<Long> bestIndexes = new HashSet<>();
+	private final List<PopulationSnapshot.Individual> lastPopulation = new ArrayList<>();
+	private final List<Double> generationBestCosts = new ArrayList<>();
+	private final List<Double> generationMeanCosts = new ArrayList<>();
+	private final List<Long> generationNanos = new ArrayList<>();
+	private StopReason stopReason;
+
+	private IndexedGeneticSearcher(Builder builder) {
+		this.list = builder.list;
+		this.selector = builder.selector;
+		this.topKSelector = builder.topKSelector;
+		this.costFunction = builder.costFunction;
+		this.maxPopulationsAmount = builder.maxPopulationsAmount;
+		this.populationSize = builder.populationSize;
+		this.bestPart = builder.bestPart;
+		this.crossoverPart = builder.crossoverPart;
+		this.fitnessCache = builder.fitnessCache;
+		this.warmStart = builder.warmStart;
+		this.snapshotBestSize = builder.snapshotBestSize;
+		this.profile = builder.profile;
+		this.plateauCost = builder.plateauCost;
+		this.plateauGenerations = builder.plateauGenerations;
+		this.plateauEpsilon = builder.plateauEpsilon;
+		this.targetCost = builder.targetCost;
+		this.deadlineNanos = builder.deadlineMillis == Long.MAX_VALUE ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(builder.deadlineMillis);
+		if (warmStart != null && warmStart.getGridSize() != list.size())
+			throw new IllegalArgumentException("Snapshot of another grid: " + warmStart.getGridSize() + " points, expected " + list.size());
+		this.random = new SplittableRandom(builder.seed);
+		this.operators = new GridGeneticOperators(list.getSpace());
+		this.executor = builder.executorType.newExecutor(builder.threadAmount);
+		this.populationExecutor = builder.parallelPopulation ? executor : null;
+		this.screening = builder.screening;
+		this.screeningList = screening == null ? null : screening.screen(list);
+		this.resultStore = builder.resultStore;
+		this.fingerprint = resultStore == null ? null : new SettingsFingerprint(list.getSpace());
+		this.evaluator = builder.evaluator == null ? this::simulate : builder.evaluator;
+		this.digits = ThreadLocal.withInitial(list::newDigits);
+		this.appender = ThreadLocal.withInitial(this::newAppender);
+		this.search = new Thread(this::search, "IndexedGeneticSearcher");
+		this.search.start();
+	}
+
+	private void search() {
+		try {
+			final long start = System.nanoTime();
+			long[] population = firstPopulation();
+			for (int generation = 0; generation < maxPopulationsAmount; ++generation) {
+				final FitnessCache.Fitness[] fitness = evaluate(population);
+				final double[] costs = new double[fitness.length];
+				double generationBest = Double.NEGATIVE_INFINITY;
+				double sum = 0.0;
+				int simulated = 0;
+				for (int i = 0; i < costs.length; ++i) {
+					costs[i] = fitness[i].cost;
+					generationBest = Math.max(generationBest, costs[i]);
+					if (costs[i] != Double.NEGATIVE_INFINITY) {
+						sum += costs[i];
+						simulated += 1;
+					}
+				}
+				generationBestCosts.add(generationBest);
+				generationMeanCosts.add(simulated == 0 ? Double.NEGATIVE_INFINITY : sum / simulated);
+				final long elapsed = System.nanoTime() - start;
+				generationNanos.add(elapsed);
+				stopReason = stopReason(generation, generationBest, elapsed);
+				if (stopReason == null) {
+					population = nextPopulation(population, costs);
+				} else {
+					for (int i = 0; i < population.length; ++i) {
+						lastPopulation.add(new PopulationSnapshot.Individual(population[i], fitness[i].cost, fitness[i].metrics));
+					}
+					break;
+				}
+			}
+		} catch (Exception e) {
+			failure = e;
+		} finally {
+			executor.shutdown();
+			synchronized (appenders) {
+				for (ResultStore.Appender a : appenders) {
+					a.close();
+				}
+			}
+		}
+	}
+
+	private ResultStore.Appender newAppender() {
+		final ResultStore.Appender result = resultStore.appender();
+		synchronized (appenders) {
+			appenders.add(result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return null to continue with the next generation
+	 */
+	private StopReason stopReason(int generation, double generationBest, long elapsed) {
+		if (generationBest >= targetCost)
+			return StopReason.TARGET_COST;
+		if (elapsed >= deadlineNanos)
+			return StopReason.DEADLINE;
+		if (plateauGenerations > 0 && generation >= plateauGenerations) {
+			final double before = plateauCost == PlateauCost.BEST ? bestSoFar(generation - plateauGenerations) : generationMeanCosts.get(generation - plateauGenerations);
+			final double now = plateauCost == PlateauCost.BEST ? bestSoFar(generation) : generationMeanCosts.get(generation);
+			if (now - before <= plateauEpsilon)
+				return StopReason.PLATEAU;
+		}
+		if (generation + 1 >= maxPopulationsAmount)
+			return StopReason.MAX_POPULATIONS;
+		return null;
+	}
+
+	private double bestSoFar(int generation) {
+		double result = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i <= generation; ++i) {
+			result = Math.max(result, generationBestCosts.get(i));
+		}
+		return result;
+	}
+
+	private long[] firstPopulation() throws InterruptedException, ExecutionException {
+		final long[] population = new long[populationSize];
+		int size = 0;
+		if (warmStart != null) {
+			for (PopulationSnapshot.Individual individual : warmStart.getBest()) {
+				if (size < populationSize)
+					population[size++] = individual.index;
+			}
+			for (PopulationSnapshot.Individual individual : warmStart.getPopulation()) {
+				if (size < populationSize)
+					population[size++] = individual.index;
+			}
+		}
+		final int seeded = size;
+		GridGeneticOperators.fill(population, random, populationExecutor, (i, r) -> i < seeded ? population[i] : operators.generateRandom(r));
+		return population;
+	}
+
+	private FitnessCache.Fitness[] evaluate(long[] population) throws InterruptedException, ExecutionException {
+		final Map<Long, FitnessCache.Fitness> cached = new HashMap<>();
+		if (fitnessCache != null) {
+			final Set<Long> lookedUp = new HashSet<>();
+			for (long index : population) {
+				if (lookedUp.add(index)) {
+					final FitnessCache.Fitness fitness = fitnessCache.get(index);
+					if (fitness != null)
+						cached.put(index, fitness);
+				}
+			}
+		}
+		final Set<Long> promoted = screening == null ? null : screen(population, cached.keySet());
+		final List<Future<FitnessCache.Fitness>> tasks = new ArrayList<>(population.length);
+		final Map<Long, Future<FitnessCache.Fitness>> unique = new HashMap<>();
+		for (long index : population) {
+			tasks.add(unique.computeIfAbsent(index, k -> {
+				final FitnessCache.Fitness hit = cached.get(index);
+				if (hit != null)
+					return CompletableFuture.completedFuture(hit);
+				if (promoted != null && !promoted.contains(index))
+					return CompletableFuture.completedFuture(new FitnessCache.Fitness(new double[MetricVector.SIZE], Double.NEGATIVE_INFINITY));
+				final long submitted = profile.start();
+				return executor.submit(() -> {
+					profile.recordQueueWait(submitted);
+					return evaluator.evaluate(index);
+				});
+			}));
+		}
+		final FitnessCache.Fitness[] fitness = new FitnessCache.Fitness[population.length];
+		for (int i = 0; i < fitness.length; ++i) {
+			fitness[i] = tasks.get(i).get();
+		}
+		return fitness;
+	}
+
+	/**
+	 * @param cached
+	 *            individuals with a known fitness, not screened
+	 * @return distinct individuals promoted to the full simulation
+	 */
+	private Set<Long> screen(long[] population, Set<Long> cached) throws InterruptedException, ExecutionException {
+		final Map<Long, Future<Double>> screened = new HashMap<>();
+		for (long index : population) {
+			if (!cached.contains(index))
+				screened.computeIfAbsent(index, k -> executor.submit(() -> screenCost(index)));
+		}
+		final IndexTopK top = new IndexTopK(screening.promotions(screened.size()));
+		for (Map.Entry<Long, Future<Double>> e : screened.entrySet()) {
+			top.add(e.getKey(), e.getValue().get());
+		}
+		screening.count(screened.size(), top.size());
+		return new HashSet<>(top.indexes());
+	}
+
+	private double screenCost(long index) {
+		try {
+			final TradingStrategy strategy = ExecutionSimulator.simulate(screeningList.materialize(index, digits.get()));
+			return cost(MetricVector.of(strategy.getMetrics()), strategy);
+		} catch (Exception e) {
+			logger.error("Grid point " + index + " failed screening", e);
+			return Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Simulates an individual that is not in the fitness cache.
+	 */
+	private FitnessCache.Fitness simulate(long index) {
+		try {
+			final long generation = profile.start();
+			final ExecutionImpl execution = list.materialize(index, digits.get());
+			profile.record(SearchProfile.Phase.SETTINGS_GENERATION, generation);
+			final TradingStrategy strategy = ExecutionSimulator.simulate(execution, profile);
+			final double[] metrics = MetricVector.of(strategy.getMetrics());
+			if (resultStore != null)
+				appender.get().append(fingerprint.fingerprintDecoded(digits.get()), index, metrics);
+			final double cost = cost(metrics, strategy);
+			final long insertion = profile.start();
+			if (topKSelector != null) {
+				topKSelector.addStrategy(index, strategy);
+			} else {
+				synchronized (selector) {
+					selector.addStrategy(strategy);
+				}
+			}
+			profile.record(SearchProfile.Phase.SELECTOR_INSERTION, insertion);
+			final FitnessCache.Fitness fitness = new FitnessCache.Fitness(metrics, cost);
+			if (fitnessCache != null)
+				fitnessCache.put(index, fitness);
+			if (snapshotBestSize > 0)
+				addBest(index, fitness);
+			return fitness;
+		} catch (Exception e) {
+			logger.error("Grid point " + index + " failed", e);
+			return new FitnessCache.Fitness(new double[MetricVector.SIZE], Double.NEGATIVE_INFINITY);
+		}
+	}
+
+	private void addBest(long index, FitnessCache.Fitness fitness) {
+		synchronized (best) {
+			if (bestIndexes.contains(index) || (best.size() == snapshotBestSize && fitness.cost <= best.peek().cost))
+				return;
+			best.add(new PopulationSnapshot.Individual(index, fitness.cost, fitness.metrics));
+			bestIndexes.add(index);
+			if (best.size() > snapshotBestSize)
+				bestIndexes.remove(best.poll().index);
+		}
+	}
+
+	private double cost(double[] metrics, TradingStrategy strategy) {
+		if (costFunction instanceof WeightedMetricCost)
+			return ((WeightedMetricCost) costFunction).cost(metrics);
+		return costFunction.calculate(strategy.getMetrics());
+	}
+
+	private long[] nextPopulation(long[] population, double[] costs) throws InterruptedException, ExecutionException {
+		final Integer[] order = new Integer[population.length];
+		for (int i = 0; i < order.length; ++i) {
+			order[i] = i;
+		}
+		final long selection = profile.start();
+		Arrays.sort(order, (l, r) -> Double.compare(costs[r], costs[l]));
+		profile.record(SearchProfile.Phase.GENETIC_SELECTION, selection);
+		final int parents = Math.max(1, (int) Math.ceil(population.length * bestPart));
+		final int children = (int) (populationSize * crossoverPart);
+		final long[] next = new long[populationSize];
+		GridGeneticOperators.fill(next, random, populationExecutor, (i, r) -> {
+			final long start = profile.start();
+			final long parent = population[order[r.nextInt(parents)]];
+			final long child;
+			if (i < children) {
+				child = operators.merge(parent, population[order[r.nextInt(parents)]], r);
+				profile.record(SearchProfile.Phase.CROSSOVER, start);
+			} else {
+				child = operators.mutate(parent, r);
+				profile.record(SearchProfile.Phase.MUTATION, start);
+			}
+			return child;
+		});
+		return next;
+	}
+
+	StrategySelector waitAndGetSelector() throws InterruptedException, ExecutionException {
+		search.join();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		if (failure != null)
+			throw new ExecutionException(failure);
+		if (topKSelector != null)
+			topKSelector.mergeInto(selector);
+		return selector;
+	}
+
+	/**
+	 * Should be called after {@link #waitAndGetSelector()}.
+	 */
+	PopulationSnapshot getSnapshot() {
+		final List<PopulationSnapshot.Individual> result = new ArrayList<>(best);
+		result.sort((l, r) -> Double.compare(r.cost, l.cost));
+		return new PopulationSnapshot(list.size(), lastPopulation, result);
+	}
+
+	/**
+	 * Should be called after {@link #waitAndGetSelector()}.
+	 *
+	 * @return generations evaluated until the best cost of a generation
+	 *         reached target, -1 if it never did
+	 */
+	int generationsToReach(double target) {
+		for (int i = 0; i < generationBestCosts.size(); ++i) {
+			if (generationBestCosts.get(i) >= target)
+				return i + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return seconds from the search start until the end of the generation
+	 *         that reached target, NaN if none did
+	 */
+	double secondsToReach(double target) {
+		final int generations = generationsToReach(target);
+		return generations < 0 ? Double.NaN : generationNanos.get(generations - 1) / 1e9;
+	}
+
+	/**
+	 * Should be called after {@link #waitAndGetSelector()}.
+	 *
+	 * @return null if the search failed
+	 */
+	StopReason getStopReason() {
+		return stopReason;
+	}
+
+	/**
+	 * @return evaluated generations
+	 */
+	int getGenerations() {
+		return generationBestCosts.size();
+	}
+
+	/**
+	 * @return seconds from the search start until the end of the last
+	 *         evaluated generation
+	 */
+	double getSeconds() {
+		return generationNanos.isEmpty() ? 0.0 : generationNanos.get(generationNanos.size() - 1) / 1e9;
+	}
+
+	/**
+	 * @return best cost of all evaluated generations
+	 */
+	double getBestCost() {
+		double result = Double.NEGATIVE_INFINITY;
+		for (double cost : generationBestCosts) {
+			result = Math.max(result, cost);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,70 @@
+package stsc.performance;
+
+import stsc.common.FromToPeriod;
+import stsc.common.algorithms.BadAlgorithmException;
+import stsc.common.storage.StockStorage;
+import stsc.general.simulator.ExecutionImpl;
+import stsc.general.simulator.multistarter.BadParameterException;
+import stsc.general.simulator.multistarter.grid.SimulatorSettingsGridFactory;
+
+/**
+ * Lazy alternative to SimulatorSettingsGridList: grid points are long indexes
+ * into a {@link GridSpace}, the {@link ExecutionImpl} object graph is built by
+ * {@link #materialize(long, int[])} right before simulation. Immutable, so one
+ * instance can be shared by all workers; each worker owns its digits array.
+ */
+final class IndexedGridList {
+
+	private final GridSpace space;
+	private final StockStorage stockStorage;
+	private final FromToPeriod period;
+
+	IndexedGridList(GridSpace space, StockStorage stockStorage, FromToPeriod period) {
+		this.space = space;
+		this.stockStorage = stockStorage;
+		this.period = period;
+	}
+
+	GridSpace getSpace() {
+		return space;
+	}
+
+	StockStorage getStockStorage() {
+		return stockStorage;
+	}
+
+	FromToPeriod getPeriod() {
+		return period;
+	}
+
+	long size() {
+		return space.size();
+	}
+
+	int[] newDigits() {
+		return new int[space.dimensions()];
+	}
+
+	/**
+	 * Same grid over another period.
+	 */
+	IndexedGridList withPeriod(FromToPeriod period) {
+		return new IndexedGridList(space, stockStorage, period);
+	}
+
+	ExecutionImpl materialize(long index, int[] digits) throws BadParameterException, BadAlgorithmException {
+		space.decode(index, digits);
+		return materializeDecoded(digits);
+	}
+
+	/**
+	 * @param digits
+	 *            already decoded grid point (see {@link GridSpace#decode})
+	 */
+	ExecutionImpl materializeDecoded(int[] digits) throws BadParameterException, BadAlgorithmException {
+		final SimulatorSettingsGridFactory factory = new SimulatorSettingsGridFactory(stockStorage, period);
+		space.fillPoint(factory, digits);
+		return factory.getList().iterator().next();
+	}
+
+}
@@ -0,0 +1,81 @@
+package stsc.performance;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent log-linear histogram of nanosecond latencies (HDR-style): values
+ * are bucketed by power of two with 16 linear sub-buckets each, so every
+ * recorded value is reported with at most 1/16 relative error. Recording is one
+ * atomic increment, memory is fixed.
+ */
+final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) Math.max(value, 0);
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * @return highest value of the bucket
+	 */
+	static long highestValue(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		final int shift = bucket / SUB_BUCKETS - 1;
+		final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	void record(long nanos) {
+		counts.incrementAndGet(bucket(nanos));
+		total.addAndGet(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+
+	long count() {
+		long result = 0;
+		for (int i = 0; i < counts.length(); ++i) {
+			result += counts.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * @param percentile
+	 *            0 .. 100
+	 * @return nanoseconds, 0 for an empty histogram
+	 */
+	long percentile(double percentile) {
+		final long count = count();
+		if (count == 0)
+			return 0;
+		final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); ++i) {
+			seen += counts.get(i);
+			if (seen >= rank)
+				return Math.min(highestValue(i), max.get());
+		}
+		return max.get();
+	}
+
+	long max() {
+		return max.get();
+	}
+
+	long total() {
+		return total.get();
+	}
+
+}
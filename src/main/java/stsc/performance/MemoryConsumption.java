@@ -5,6 +5,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.joda.time.LocalDate;
 
@@ -13,6 +19,7 @@ import stsc.common.algorithms.BadAlgorithmException;
 import stsc.common.storage.StockStorage;
 import stsc.general.simulator.Execution;
 import stsc.general.simulator.ExecutionImpl;
+import stsc.general.simulator.multistarter.BadParameterException;
 import stsc.general.simulator.multistarter.genetic.SimulatorSettingsGeneticFactory;
 import stsc.general.simulator.multistarter.genetic.GeneticList;
 import stsc.general.simulator.multistarter.genetic.SimulatorSettingsGeneticListImpl;
@@ -26,6 +33,7 @@ final class MemoryConsumption {
 	private static boolean onlyReport = true;
 
 	private final static StockStorage stockStorage = StockStorageMock.getStockStorage();
+	private final static ResultSink sink = ResultSink.create(new PerformanceCalculatorSettings().resultFile);
 
 	static private String getDateRepresentation(LocalDate date) {
 		int day = date.getDayOfMonth();
@@ -48,10 +56,10 @@ final class MemoryConsumption {
 		final TimeTracker tt = new TimeTracker();
 		final SimulatorSettingsGridFactory factory = SimulatorSettingsGenerator.getGridFactory(false, stockStorage, elements, getDateRepresentation(startOfPeriod),
 				getDateRepresentation(endOfPeriod));
-		final long size = factory.size();
 		final SimulatorSettingsGridList list = factory.getList();
 		final Iterator<ExecutionImpl> iterator = list.iterator();
-		final ArrayList<ExecutionImpl> settings = new ArrayList<ExecutionImpl>((int) Math.min(100000, N));
+		final ArrayList<ExecutionImpl> settings = new ArrayList<ExecutionImpl>((int) (testMemory ? N : 0));
+		final AllocationProbe probe = testMemory ? AllocationProbe.start() : null;
 		for (long i = 0; i < N; ++i) {
 			if (!iterator.hasNext()) {
 				break;
@@ -64,13 +72,51 @@ final class MemoryConsumption {
 				settings.add(setting);
 		}
 		if (testMemory) {
-			System.out.println("Time in secs: (" + N + "/" + size + ") " + TimeTracker.lengthInSeconds(tt.finish()));
-			System.in.read();
+			final double seconds = TimeTracker.lengthInSeconds(tt.finish());
+			report("Grid", probe.stop(settings.size()), seconds);
 		} else {
 			if (!onlyReport)
 				System.out.println(" " + N + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
 			if (!warmUp)
-				System.out.print(TimeTracker.lengthInSeconds(tt.finish()) + " ");
+				report("Grid", N, TimeTracker.lengthInSeconds(tt.finish()));
+		}
+	}
+
+	/**
+	 * Materializes every point like the indexed searchers do right before a
+	 * simulation; only the grid index of a point is retained, so with
+	 * testMemory the row shows the allocation of materialize() and the
+	 * retained long per point.
+	 */
+	private static void indexedGridConsumptionCheck(long N, boolean testMemory) throws IOException, BadParameterException, BadAlgorithmException {
+		final List<String> elements = Arrays.asList(new String[] { "open", "high", "low", "close", "value", "open", "high", "low", "close" });
+		final LocalDate startOfPeriod = new LocalDate(1970, 1, 1);
+		final LocalDate endOfPeriod = new LocalDate(2014, 1, 1);
+		final TimeTracker tt = new TimeTracker();
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(false, stockStorage, elements, getDateRepresentation(startOfPeriod),
+				getDateRepresentation(endOfPeriod));
+		final long size = Math.min(N, list.size());
+		final int[] digits = list.newDigits();
+		final long[] settings = new long[(int) (testMemory ? size : 0)];
+		final AllocationProbe probe = testMemory ? AllocationProbe.start() : null;
+		long checksum = 0;
+		for (long i = 0; i < size; ++i) {
+			if (!testMemory && (i % 1000000 == 0) && !onlyReport) {
+				System.out.println(" " + i + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
+			}
+			final ExecutionImpl setting = list.materialize(i, digits);
+			checksum += digits[digits.length - 1] + (setting == null ? 1 : 0);
+			if (testMemory)
+				settings[(int) i] = i;
+		}
+		if (testMemory) {
+			final double seconds = TimeTracker.lengthInSeconds(tt.finish());
+			report("Indexed", probe.stop(settings.length), seconds);
+		} else {
+			if (!onlyReport)
+				System.out.println(" " + N + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()) + " " + checksum);
+			if (!warmUp)
+				report("Indexed", N, TimeTracker.lengthInSeconds(tt.finish()));
 		}
 	}
 
@@ -81,9 +127,9 @@ final class MemoryConsumption {
 		final TimeTracker tt = new TimeTracker();
 		final SimulatorSettingsGeneticFactory factory = SimulatorSettingsGenerator.getGeneticFactory(false, stockStorage, elements, getDateRepresentation(startOfPeriod),
 				getDateRepresentation(endOfPeriod));
-		final long size = factory.size();
 		final GeneticList list = factory.getList();
-		final ArrayList<Execution> settings = new ArrayList<Execution>((int) Math.min(100000, N));
+		final ArrayList<Execution> settings = new ArrayList<Execution>((int) (testMemory ? N : 0));
+		final AllocationProbe probe = testMemory ? AllocationProbe.start() : null;
 		for (long i = 0; i < N; ++i) {
 			if (!testMemory && (i % 1000000 == 0) && !onlyReport) {
 				System.out.println(" " + i + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
@@ -93,13 +139,13 @@ final class MemoryConsumption {
 				settings.add(setting);
 		}
 		if (testMemory) {
-			System.out.println("Time in secs: (" + N + "/" + size + ") " + TimeTracker.lengthInSeconds(tt.finish()));
-			System.in.read();
+			final double seconds = TimeTracker.lengthInSeconds(tt.finish());
+			report("Random", probe.stop(settings.size()), seconds);
 		} else {
 			if (!onlyReport)
 				System.out.println(" " + N + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
 			if (!warmUp)
-				System.out.print(TimeTracker.lengthInSeconds(tt.finish()) + " ");
+				report("Random", N, TimeTracker.lengthInSeconds(tt.finish()));
 		}
 	}
 
@@ -110,11 +156,11 @@ final class MemoryConsumption {
 		final TimeTracker tt = new TimeTracker();
 		final SimulatorSettingsGeneticFactory factory = SimulatorSettingsGenerator.getGeneticFactory(false, stockStorage, elements, getDateRepresentation(startOfPeriod),
 				getDateRepresentation(endOfPeriod));
-		final long size = factory.size();
 		final SimulatorSettingsGeneticListImpl list = factory.getList();
 		Execution left = list.generateRandom();
 		Execution right = list.generateRandom();
-		final ArrayList<Execution> settings = new ArrayList<Execution>((int) Math.min(100000, N));
+		final ArrayList<Execution> settings = new ArrayList<Execution>((int) (testMemory ? N : 0));
+		final AllocationProbe probe = testMemory ? AllocationProbe.start() : null;
 		for (long i = 0; i < N; ++i) {
 			if (!testMemory && (i % 1000000 == 0) && !onlyReport) {
 				System.out.println(" " + i + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
@@ -124,13 +170,13 @@ final class MemoryConsumption {
 				settings.add(setting);
 		}
 		if (testMemory) {
-			System.out.println("Time in secs: (" + N + "/" + size + ") " + TimeTracker.lengthInSeconds(tt.finish()));
-			System.in.read();
+			final double seconds = TimeTracker.lengthInSeconds(tt.finish());
+			report("Merge", probe.stop(settings.size()), seconds);
 		} else {
 			if (!onlyReport)
 				System.out.println(" " + N + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
 			if (!warmUp)
-				System.out.print(TimeTracker.lengthInSeconds(tt.finish()) + " ");
+				report("Merge", N, TimeTracker.lengthInSeconds(tt.finish()));
 		}
 	}
 
@@ -141,10 +187,10 @@ final class MemoryConsumption {
 		final TimeTracker tt = new TimeTracker();
 		final SimulatorSettingsGeneticFactory factory = SimulatorSettingsGenerator.getGeneticFactory(false, stockStorage, elements, getDateRepresentation(startOfPeriod),
 				getDateRepresentation(endOfPeriod));
-		final long size = factory.size();
 		final SimulatorSettingsGeneticListImpl list = factory.getList();
 		Execution left = list.generateRandom();
-		final ArrayList<Execution> settings = new ArrayList<Execution>((int) Math.min(100000, N));
+		final ArrayList<Execution> settings = new ArrayList<Execution>((int) (testMemory ? N : 0));
+		final AllocationProbe probe = testMemory ? AllocationProbe.start() : null;
 		for (long i = 0; i < N; ++i) {
 			if (!testMemory && (i % 1000000 == 0) && !onlyReport) {
 				System.out.println(" " + i + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
@@ -154,18 +200,105 @@ final class MemoryConsumption {
 				settings.add(setting);
 		}
 		if (testMemory) {
-			System.out.println("Time in secs: (" + N + "/" + size + ") " + TimeTracker.lengthInSeconds(tt.finish()));
-			System.in.read();
+			final double seconds = TimeTracker.lengthInSeconds(tt.finish());
+			report("Mutate", probe.stop(settings.size()), seconds);
 		} else {
 			if (!onlyReport)
 				System.out.println(" " + N + " " + TimeTracker.lengthInSeconds(tt.lengthNonStop()));
 			if (!warmUp)
-				System.out.print(TimeTracker.lengthInSeconds(tt.finish()) + " ");
+				report("Mutate", N, TimeTracker.lengthInSeconds(tt.finish()));
+		}
+	}
+
+	/**
+	 * N random / merge / mutate operations of {@link GridGeneticOperators}
+	 * over grid indexes, split between threads; every thread has its own
+	 * SplittableRandom split from one seeded root.
+	 */
+	private static void indexedGeneticThroughputCheck(String operation, long N, int threads) throws IOException, InterruptedException, ExecutionException {
+		final List<String> elements = Arrays.asList(new String[] { "open", "high", "low", "close", "value", "open", "high", "low", "close" });
+		final LocalDate startOfPeriod = new LocalDate(1970, 1, 1);
+		final LocalDate endOfPeriod = new LocalDate(2014, 1, 1);
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(false, stockStorage, elements, getDateRepresentation(startOfPeriod),
+				getDateRepresentation(endOfPeriod));
+		final GridGeneticOperators operators = new GridGeneticOperators(list.getSpace());
+		final SplittableRandom root = new SplittableRandom(0);
+		final long left = operators.generateRandom(root);
+		final long right = operators.generateRandom(root);
+		final GridGeneticOperators.Breeder breeder;
+		if (operation.equals("Merge"))
+			breeder = (i, r) -> operators.merge(left, right, r);
+		else if (operation.equals("Mutate"))
+			breeder = (i, r) -> operators.mutate(left, r);
+		else
+			breeder = (i, r) -> operators.generateRandom(r);
+		final List<Callable<Long>> tasks = new ArrayList<>(threads);
+		for (int t = 0; t < threads; ++t) {
+			final SplittableRandom random = root.split();
+			final long amount = N / threads + (t < N % threads ? 1 : 0);
+			tasks.add(() -> {
+				long checksum = 0;
+				for (long i = 0; i < amount; ++i) {
+					checksum += breeder.breed(0, random);
+				}
+				return checksum;
+			});
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final TimeTracker tt = new TimeTracker();
+			long checksum = 0;
+			for (Future<Long> task : executor.invokeAll(tasks)) {
+				checksum += task.get();
+			}
+			final double seconds = TimeTracker.lengthInSeconds(tt.finish());
+			if (!onlyReport)
+				System.out.print("(" + checksum + ") ");
+			report("Indexed " + operation, threads, N, seconds);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void report(String operation, long N, double seconds) throws IOException {
+		report(operation, 1, N, seconds);
+	}
+
+	private static void report(String operation, int threads, long N, double seconds) throws IOException {
+		System.out.print(seconds + " ");
+		if (sink != null)
+			sink.write(new BenchmarkRecord("generation " + operation).withThreads(threads).withPoints(N).withSeconds(seconds));
+	}
+
+	private static void report(String operation, AllocationProbe probe, double seconds) throws IOException {
+		System.out.println(probe.row(operation) + " " + seconds);
+		if (sink != null)
+			sink.write(new BenchmarkRecord("allocation " + operation).withThreads(1).withPoints(probe.objects()).withSeconds(seconds)
+					.withBytesPerPoint(probe.allocatedPerObject()));
+	}
+
+	/**
+	 * Bytes allocated and retained per generated setting, GC pause time; run
+	 * with "memory" argument (heap should be sized for 10M retained settings).
+	 */
+	private static void allocationReport() throws IOException, BadParameterException, BadAlgorithmException {
+		final long[] sizes = { 1000000, 2000000, 5000000, 10000000 };
+		System.out.println(AllocationProbe.header() + " seconds");
+		for (long N : sizes) {
+			gridConsumptionCheck(N, true);
+			indexedGridConsumptionCheck(N, true);
+			geneticRandomConsumptionCheck(N, true);
+			geneticMergeConsumptionCheck(N, true);
+			geneticMutateConsumptionCheck(N, true);
 		}
 	}
 
 	public static void main(String[] args) throws IOException {
 		try {
+			if (args.length > 0 && args[0].equals("memory")) {
+				allocationReport();
+				return;
+			}
 			final long N = 5000000;
 			final long lastN = N;
 			final long stepN = N / 1;
@@ -182,6 +315,11 @@ final class MemoryConsumption {
 				gridConsumptionCheck(i, false);
 			}
 			System.out.println();
+			System.out.print("Indexed ");
+			for (long i = N; i <= lastN; i += stepN) {
+				indexedGridConsumptionCheck(i, false);
+			}
+			System.out.println();
 			System.out.print("Random ");
 			for (long i = N; i <= lastN; i += stepN) {
 				geneticRandomConsumptionCheck(i, false);
@@ -197,7 +335,14 @@ final class MemoryConsumption {
 				geneticMutateConsumptionCheck(i, false);
 			}
 			System.out.println();
-		} catch (BadAlgorithmException e) {
+			for (String operation : new String[] { "Random", "Merge", "Mutate" }) {
+				System.out.print("Indexed " + operation + " (1, 2, 4, 8 threads) ");
+				for (int threads = 1; threads <= 8; threads *= 2) {
+					indexedGeneticThroughputCheck(operation, N, threads);
+				}
+				System.out.println();
+			}
+		} catch (BadParameterException | BadAlgorithmException | InterruptedException | ExecutionException e) {
 			e.printStackTrace();
 		}
 	}
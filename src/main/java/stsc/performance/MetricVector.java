@@ -0,0 +1,41 @@
+package stsc.performance;
+
+import stsc.general.statistic.MetricType;
+import stsc.general.statistic.Metrics;
+
+/**
+ * Metrics of one strategy as a plain double[] indexed by
+ * {@link MetricType#ordinal()}. Read once from {@link Metrics} (boxed values
+ * behind a map), after that every access is an array load.
+ */
+final class MetricVector {
+
+	private static final MetricType[] TYPES = MetricType.values();
+
+	static final int SIZE = TYPES.length;
+
+	private MetricVector() {
+	}
+
+	static double[] of(Metrics metrics) {
+		return copy(metrics, new double[SIZE]);
+	}
+
+	/**
+	 * Missing metrics are stored as 0.0.
+	 *
+	 * @return to
+	 */
+	static double[] copy(Metrics metrics, double[] to) {
+		for (int i = 0; i < SIZE; ++i) {
+			final Double value = metrics.getMetric(TYPES[i]);
+			to[i] = value == null ? 0.0 : value;
+		}
+		return to;
+	}
+
+	static double get(double[] vector, MetricType type) {
+		return vector[type.ordinal()];
+	}
+
+}
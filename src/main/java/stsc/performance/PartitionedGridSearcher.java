@@ -0,0 +1,290 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.general.simulator.ExecutionImpl;
+import stsc.general.strategy.TradingStrategy;
+import stsc.general.strategy.selector.StrategySelector;
+
+/**
+ * Grid search over an {@link IndexedGridList}: the index space is cut into
+ * {@link GridSpliterator} slices (one per thread, or several for work-stealing
+ * {@link ExecutorType}s), every worker materializes and simulates the points of
+ * its own slice, there is no shared producer. With a {@link FidelityScreening}
+ * all points are first simulated at its low fidelity and only the promoted
+ * best of them are searched as above.
+ * Started by {@link Builder#build()}, like StrategyGridSearcher.
+ */
+final class PartitionedGridSearcher {
+
+	private static Logger logger = LogManager.getLogger("PartitionedGridSearcher");
+
+	static final class Builder {
+		private IndexedGridList list;
+		private StrategySelector selector;
+		private ConcurrentTopKSelector topKSelector;
+		private EarlyAbort earlyAbort;
+		private FidelityScreening screening;
+		private SearchProfile profile = SearchProfile.DISABLED;
+		private ResultStore resultStore;
+		private int threadAmount = 4;
+		private ExecutorType executorType = ExecutorType.FIXED_THREAD_POOL;
+
+		Builder setIndexedGridList(IndexedGridList list) {
+			this.list = list;
+			return this;
+		}
+
+		Builder setSelector(StrategySelector selector) {
+			this.selector = selector;
+			return this;
+		}
+
+		/**
+		 * Workers add to the lock-free selector, its top-K is merged into the
+		 * selector by {@link PartitionedGridSearcher#waitAndGetSelector()}.
+		 */
+		Builder setTopKSelector(ConcurrentTopKSelector topKSelector) {
+			this.topKSelector = topKSelector;
+			return this;
+		}
+
+		/**
+		 * Points that fail the prefix check of earlyAbort are not simulated
+		 * completely and never reach the selector. earlyAbort should be built
+		 * over the top-K selector of the search.
+		 */
+		Builder setEarlyAbort(EarlyAbort earlyAbort) {
+			this.earlyAbort = earlyAbort;
+			return this;
+		}
+
+		/**
+		 * Only the points promoted by screening are simulated fully and reach
+		 * the selector. Points are screened by the cost of the top-K selector,
+		 * which is required then.
+		 */
+		Builder setScreening(FidelityScreening screening) {
+			this.screening = screening;
+			return this;
+		}
+
+		Builder setSearchProfile(SearchProfile profile) {
+			this.profile = profile;
+			return this;
+		}
+
+		/**
+		 * Every fully simulated point is appended to the store (fingerprint,
+		 * index, metrics), not only the ones the selector keeps.
+		 */
+		Builder setResultStore(ResultStore resultStore) {
+			this.resultStore = resultStore;
+			return this;
+		}
+
+		Builder setThreadAmount(int threadAmount) {
+			this.threadAmount = threadAmount;
+			return this;
+		}
+
+		Builder setExecutorType(ExecutorType executorType) {
+			this.executorType = executorType;
+			return this;
+		}
+
+		PartitionedGridSearcher build() {
+			return new PartitionedGridSearcher(this);
+		}
+	}
+
+	static Builder getBuilder() {
+		return new Builder();
+	}
+
+	private final IndexedGridList list;
+	private final StrategySelector selector;
+	private final ConcurrentTopKSelector topKSelector;
+	private final EarlyAbort earlyAbort;
+	private final IndexedGridList prefixList;
+	private final FidelityScreening screening;
+	private final SearchProfile profile;
+	private final ResultStore resultStore;
+	private final SettingsFingerprint fingerprint;
+	private final int tasks;
+	private final ExecutorService executor;
+	private final Thread search;
+
+	private volatile Exception failure;
+	private List<Future<Void>> slices;
+
+	private PartitionedGridSearcher(Builder builder) {
+		this.list = builder.list;
+		this.selector = builder.selector;
+		this.topKSelector = builder.topKSelector;
+		this.earlyAbort = builder.earlyAbort;
+		if (earlyAbort != null && earlyAbort.getSelector() != topKSelector)
+			throw new IllegalArgumentException("Early abort should bound the top-K selector of the search");
+		this.prefixList = earlyAbort == null ? null : earlyAbort.prefix(list);
+		this.screening = builder.screening;
+		if (screening != null && topKSelector == null)
+			throw new IllegalArgumentException("Screening should rank by the top-K selector of the search");
+		this.profile = builder.profile;
+		this.resultStore = builder.resultStore;
+		this.fingerprint = resultStore == null ? null : new SettingsFingerprint(list.getSpace());
+		this.tasks = builder.threadAmount * builder.executorType.tasksPerThread;
+		this.executor = builder.executorType.newExecutor(builder.threadAmount);
+		if (screening == null) {
+			this.search = null;
+			this.slices = submit(list.size(), slice -> searchSlice(slice, null));
+			executor.shutdown();
+		} else {
+			this.search = new Thread(this::screenAndSearch, "PartitionedGridSearcher");
+			this.search.start();
+		}
+	}
+
+	/**
+	 * Submits one task per slice of [0, size) positions.
+	 */
+	private <T> List<Future<T>> submit(long size, Function<GridSpliterator, T> task) {
+		final List<Future<T>> result = new ArrayList<>(tasks);
+		for (int i = 0; i < tasks; ++i) {
+			final GridSpliterator slice = GridSpliterator.slice(size, i, tasks);
+			final long submitted = profile.start();
+			result.add(executor.submit(() -> {
+				profile.recordQueueWait(submitted);
+				return task.apply(slice);
+			}));
+		}
+		return result;
+	}
+
+	private void screenAndSearch() {
+		try {
+			final IndexedGridList screened = screening.screen(list);
+			final int promotions = screening.promotions(list.size());
+			final IndexTopK top = new IndexTopK(promotions);
+			for (Future<IndexTopK> slice : submit(list.size(), slice -> screenSlice(screened, slice, promotions))) {
+				top.addAll(slice.get());
+			}
+			final long[] promoted = top.bestIndexes();
+			screening.count(list.size(), promoted.length);
+			slices = submit(promoted.length, slice -> searchSlice(slice, promoted));
+		} catch (Exception e) {
+			failure = e;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return best promotions points of the slice at the screening fidelity
+	 */
+	private IndexTopK screenSlice(IndexedGridList screened, GridSpliterator slice, int promotions) {
+		final IndexTopK result = new IndexTopK(promotions);
+		final int[] digits = list.newDigits();
+		slice.forEachRemaining((long index) -> {
+			try {
+				result.add(index, topKSelector.cost(ExecutionSimulator.simulate(screened.materialize(index, digits), profile).getMetrics()));
+			} catch (Exception e) {
+				logger.error("Grid point " + index + " failed screening", e);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * @param indexes
+	 *            grid indexes of the slice positions, null when positions are
+	 *            grid indexes
+	 */
+	private Void searchSlice(GridSpliterator slice, long[] indexes) {
+		try (ResultStore.Appender appender = resultStore == null ? null : resultStore.appender()) {
+			searchSlice(slice, indexes, appender);
+		}
+		return null;
+	}
+
+	private void searchSlice(GridSpliterator slice, long[] indexes, ResultStore.Appender appender) {
+		final int[] digits = list.newDigits();
+		slice.forEachRemaining((long position) -> {
+			final long index = indexes == null ? position : indexes[(int) position];
+			try {
+				if (earlyAbort != null && earlyAbort.shouldCheck() && earlyAbort.abort(list, ExecutionSimulator.simulate(prefixList.materialize(index, digits), profile)))
+					return;
+				final long generation = profile.start();
+				final ExecutionImpl execution = list.materialize(index, digits);
+				profile.record(SearchProfile.Phase.SETTINGS_GENERATION, generation);
+				final TradingStrategy strategy = ExecutionSimulator.simulate(execution, profile);
+				if (appender != null)
+					appender.append(fingerprint.fingerprintDecoded(digits), index, MetricVector.of(strategy.getMetrics()));
+				final long insertion = profile.start();
+				if (topKSelector != null) {
+					topKSelector.addStrategy(index, strategy);
+				} else {
+					synchronized (selector) {
+						selector.addStrategy(strategy);
+					}
+				}
+				profile.record(SearchProfile.Phase.SELECTOR_INSERTION, insertion);
+			} catch (Exception e) {
+				logger.error("Grid point " + index + " failed", e);
+			}
+		});
+	}
+
+	StrategySelector waitAndGetSelector() throws InterruptedException, ExecutionException {
+		if (search != null) {
+			search.join();
+			if (failure != null)
+				throw new ExecutionException(failure);
+		}
+		for (Future<?> slice : slices) {
+			slice.get();
+		}
+		if (topKSelector != null)
+			topKSelector.mergeInto(selector);
+		return selector;
+	}
+
+	/**
+	 * Materializes (without simulating) the first points grid points with
+	 * threadAmount workers, each on its own slice.
+	 *
+	 * @return enumerated points per second
+	 */
+	static double enumerationThroughput(IndexedGridList list, long points, int threadAmount) throws InterruptedException, ExecutionException {
+		final long size = Math.min(points, list.size());
+		final ExecutorService executor = Executors.newFixedThreadPool(threadAmount);
+		final List<Future<?>> slices = new ArrayList<>();
+		final long start = System.nanoTime();
+		for (int i = 0; i < threadAmount; ++i) {
+			final GridSpliterator slice = GridSpliterator.slice(size, i, threadAmount);
+			slices.add(executor.submit(() -> {
+				final int[] digits = list.newDigits();
+				slice.forEachRemaining((long index) -> {
+					try {
+						list.materialize(index, digits);
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				});
+			}));
+		}
+		executor.shutdown();
+		for (Future<?> slice : slices) {
+			slice.get();
+		}
+		return size / ((System.nanoTime() - start) / 1e9);
+	}
+}
@@ -1,6 +1,12 @@
 package stsc.performance;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import org.joda.time.Days;
 import org.joda.time.LocalDate;
@@ -16,8 +22,8 @@ import stsc.general.simulator.multistarter.genetic.StrategyGeneticSearcher;
 import stsc.general.simulator.multistarter.grid.SimulatorSettingsGridFactory;
 import stsc.general.simulator.multistarter.grid.SimulatorSettingsGridList;
 import stsc.general.simulator.multistarter.grid.StrategyGridSearcher;
+import stsc.general.statistic.MetricType;
 import stsc.general.statistic.cost.comparator.MetricsSameComparator;
-import stsc.general.statistic.cost.function.CostWeightedSumFunction;
 import stsc.general.strategy.TradingStrategy;
 import stsc.general.strategy.selector.StatisticsByCostSelector;
 import stsc.general.strategy.selector.StrategySelector;
@@ -28,12 +34,18 @@ class PerformanceCalculator {
 	final StockStorage stockStorage;
 
 	final private PerformanceCalculatorSettings settings;
+	final private ResultSink sink;
 
 	PerformanceCalculator(PerformanceCalculatorSettings settings) throws Exception {
+		this(settings, StockStorageMock.getStockStorage());
+	}
+
+	PerformanceCalculator(PerformanceCalculatorSettings settings, StockStorage stockStorage) throws Exception {
 		this.settings = settings;
-		this.stockStorage = StockStorageMock.getStockStorage();
+		this.sink = ResultSink.create(settings.resultFile);
+		this.stockStorage = settings.sharedStocks ? SharedStockStorage.of(stockStorage) : stockStorage;
 
-		if (settings.printAdditionalInfo && settings.searcherType == SearcherType.GENETIC_SEARCHER) {
+		if (settings.printAdditionalInfo && (settings.searcherType == SearcherType.GENETIC_SEARCHER || settings.searcherType == SearcherType.INDEXED_GENETIC_SEARCHER)) {
 			System.out.print(settings.maxSelectionIndex + " " + settings.populationSize + " ");
 		}
 		if (settings.printStarterInfo) {
@@ -61,7 +73,6 @@ class PerformanceCalculator {
 		for (int i = 42; i <= 42; i += 1) {
 			calculateForThreads(settings.startOfPeriod.plusYears(i));
 		}
-
 	}
 
 	public void calculateSmallStatistics() throws Exception {
@@ -73,11 +84,353 @@ class PerformanceCalculator {
 	private void calculateForThreads(LocalDate endDate) throws Exception {
 		if (settings.printAdditionalInfo)
 			System.out.print(Days.daysBetween(settings.startOfPeriod, endDate).getDays());
+		final ScalabilityReport report = new ScalabilityReport();
 		for (int thread = settings.threadsFrom; thread <= settings.threadsTo; ++thread) {
-			calculateAverageTime(endDate, true, thread);
+			calculateAverageTime(endDate, true, thread, report);
 		}
 		if (settings.printAdditionalInfo)
 			System.out.println();
+		if (settings.printScalability)
+			report.print(settings);
+		if (settings.printEnumerationThroughput)
+			calculateEnumerationThroughput(endDate);
+	}
+
+	private void calculateEnumerationThroughput(LocalDate endDate) throws Exception {
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(settings.performanceForGridTest, stockStorage, settings.elements,
+				settings.getStartOfPeriod(), getDateRepresentation(endDate));
+		System.out.print("Enumeration points/s:");
+		for (int thread = settings.threadsFrom; thread <= settings.threadsTo; ++thread) {
+			System.out.print(" " + settings.format(PartitionedGridSearcher.enumerationThroughput(list, settings.enumerationPoints, thread)));
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Every Ema P x Level f variant of the grid, for every input column and
+	 * stock of the columnar storage (converted to columnsDirectory when
+	 * missing): ExecutionSimulator.simulate of the grid point of each variant
+	 * (other parameters at their first value, all stocks, [startOfPeriod,
+	 * today)) as the baseline, then the in -> ema -> level days-above-level
+	 * kernel ({@link SweepBatch}) one variant at a time (the Ema computed once
+	 * per P) and in one batch pass per stock. Prints variants, variant
+	 * evaluations per second of the three, speedup of the batch over the
+	 * simulation and over the single kernel and whether both kernel results
+	 * are the same. The kernel does not trade and has no metrics, so only
+	 * the times are comparable with the simulation.
+	 */
+	public void calculateBatchSweep() throws Exception {
+		final Path directory = Paths.get(settings.columnsDirectory);
+		if (!Files.isDirectory(directory))
+			ColumnarStockStorage.convert(stockStorage, directory);
+		final ColumnarStockStorage storage = ColumnarStockStorage.open(directory);
+		final SweepBatch batch = SweepBatch.of(SimulatorSettingsGenerator.getSpace(settings.performanceForGridTest, settings.elements));
+		final long evaluations = (long) batch.variants() * settings.elements.size() * storage.getStockNames().size();
+
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(settings.performanceForGridTest, storage, settings.elements,
+				settings.getStartOfPeriod(), getDateRepresentation(LocalDate.now()));
+		final int inDimension = list.getSpace().dimension("in", "e");
+		final int emaDimension = list.getSpace().dimension("ema", "P");
+		final int levelDimension = list.getSpace().dimension("level", "f");
+		final int[] digits = list.newDigits();
+		final TimeTracker simulatedTracker = new TimeTracker();
+		for (int i = 0; i < settings.elements.size(); ++i) {
+			digits[inDimension] = i;
+			for (int e = 0; e < batch.sizeP(); ++e) {
+				digits[emaDimension] = e;
+				for (int l = 0; l < batch.sizeF(); ++l) {
+					digits[levelDimension] = l;
+					ExecutionSimulator.simulate(list.materializeDecoded(digits));
+				}
+			}
+		}
+		final double simulatedTime = TimeTracker.lengthInSeconds(simulatedTracker.finish());
+
+		final TimeTracker singleTracker = new TimeTracker();
+		long single = 0;
+		for (String input : settings.elements) {
+			final int column = StockColumns.column(input);
+			for (String name : storage.getStockNames()) {
+				for (int e = 0; e < batch.sizeP(); ++e) {
+					final double[] ema = SweepBatch.ema(storage.getColumns(name), column, batch.p(e));
+					for (int l = 0; l < batch.sizeF(); ++l) {
+						single += SweepBatch.daysAbove(ema, batch.f(l));
+					}
+				}
+			}
+		}
+		final double singleTime = TimeTracker.lengthInSeconds(singleTracker.finish());
+
+		final TimeTracker batchTracker = new TimeTracker();
+		batch.reset();
+		for (String input : settings.elements) {
+			final int column = StockColumns.column(input);
+			for (String name : storage.getStockNames()) {
+				batch.evaluate(storage.getColumns(name), column);
+			}
+		}
+		final double batchTime = TimeTracker.lengthInSeconds(batchTracker.finish());
+
+		System.out.println(batch.variants() + " simulated " + settings.format(evaluations / simulatedTime) + " single " + settings.format(evaluations / singleTime)
+				+ " batch " + settings.format(evaluations / batchTime) + " x" + settings.format(simulatedTime / batchTime) + " x"
+				+ settings.format(singleTime / batchTime) + (single == batch.sum() ? "" : " DIFFERENT RESULTS " + single + " " + batch.sum()));
+		record(new BenchmarkRecord(settings.scenario + " sweep").withSearcherType("simulated").withThreads(1).withPoints(evaluations)
+				.withSeconds(simulatedTime));
+		record(new BenchmarkRecord(settings.scenario + " sweep").withSearcherType("single").withThreads(1).withPoints(evaluations).withSeconds(singleTime));
+		record(new BenchmarkRecord(settings.scenario + " sweep").withSearcherType("batch").withThreads(1).withPoints(evaluations).withSeconds(batchTime));
+	}
+
+	/**
+	 * One {@link DistributedGridSearcher} run per worker process amount
+	 * (threadsFrom .. threadsTo); prints workers, time, simulated points per
+	 * second and reissued leases.
+	 */
+	public void calculateDistributedThroughput(LocalDate endDate) throws Exception {
+		for (int workers = settings.threadsFrom; workers <= settings.threadsTo; ++workers) {
+			final TimeTracker timeTracker = new TimeTracker();
+			final DistributedGridSearcher searcher = DistributedGridSearcher.getBuilder(). //
+					setGrid(settings.performanceForGridTest, stockStorage, settings.elements, settings.getStartOfPeriod(), getDateRepresentation(endDate)). //
+					setSelector(createSelector()). //
+					setCostFunction(WeightedMetricCost.defaultWeights()). //
+					setStoredStrategyAmount(settings.storedStrategyAmount). //
+					setWorkerAmount(workers). //
+					setLeaseSize(settings.leaseSize).build();
+			searcher.waitAndGetSelector();
+			timeTracker.finish();
+			final double time = TimeTracker.lengthInSeconds(timeTracker.length());
+			System.out.println(workers + " " + settings.format(time) + " " + settings.format(searcher.size() / time) + " " + searcher.getReissued() + " "
+					+ searcher.getRespawned());
+			record(new BenchmarkRecord(settings.scenario + " distributed").withSearcherType(SearcherType.DISTRIBUTED_GRID_SEARCHER).withThreads(workers)
+					.withPeriodDays(Days.daysBetween(settings.startOfPeriod, endDate).getDays()).withPoints(searcher.size()).withSeconds(time));
+		}
+	}
+
+	/**
+	 * Indexed genetic search over [startOfPeriod, endDate) cold and
+	 * warm-started from a {@link PopulationSnapshot} of a search over the first
+	 * half of the period (written to and read from snapshotFile). Target cost
+	 * is the best cost of the cold run; prints snapshot size in bytes, target,
+	 * then generations and seconds to reach it for the cold and the warm run.
+	 */
+	public void calculateWarmStart(LocalDate endDate, Path snapshotFile, int threadSize) throws Exception {
+		final int days = Days.daysBetween(settings.startOfPeriod, endDate).getDays();
+		final IndexedGeneticSearcher previous = createIndexedGeneticSearcher(getIndexedGridList(getDateRepresentation(settings.startOfPeriod.plusDays(days / 2))),
+				threadSize, null);
+		previous.waitAndGetSelector();
+		previous.getSnapshot().writeTo(snapshotFile);
+
+		final IndexedGridList list = getIndexedGridList(getDateRepresentation(endDate));
+		final IndexedGeneticSearcher cold = createIndexedGeneticSearcher(list, threadSize, null);
+		cold.waitAndGetSelector();
+		final double target = cold.getBestCost();
+		final IndexedGeneticSearcher warm = createIndexedGeneticSearcher(list, threadSize, PopulationSnapshot.readFrom(snapshotFile));
+		warm.waitAndGetSelector();
+
+		System.out.println(days + " " + Files.size(snapshotFile) + " " + settings.format(target) + " cold " + cold.generationsToReach(target) + " "
+				+ settings.format(cold.secondsToReach(target)) + " warm " + warm.generationsToReach(target) + " " + settings.format(warm.secondsToReach(target)));
+		record(new BenchmarkRecord(settings.scenario + " cold start").withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withSeconds(cold.secondsToReach(target)));
+		record(new BenchmarkRecord(settings.scenario + " warm start").withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withSeconds(warm.secondsToReach(target)));
+	}
+
+	/**
+	 * {@link GeneticTuner} over the indexed genetic searcher, period
+	 * [startOfPeriod, endDate): prints the surviving configurations of the last
+	 * rung and the Pareto front of all evaluated ones (maxSelectionIndex,
+	 * populationSize, bestPart, crossoverPart, runs, mean time, mean avGain).
+	 */
+	public void tuneGeneticParameters(LocalDate endDate, int threadSize, double budgetSeconds, int configurations) throws Exception {
+		final String endOfPeriod = getDateRepresentation(endDate);
+		final SearcherType searcherType = settings.searcherType;
+		settings.searcherType = SearcherType.INDEXED_GENETIC_SEARCHER;
+		final GeneticTuner tuner = new GeneticTuner(configuration -> {
+			settings.maxSelectionIndex = configuration.maxSelectionIndex;
+			settings.populationSize = configuration.populationSize;
+			settings.bestPart = configuration.bestPart;
+			settings.crossoverPart = configuration.crossoverPart;
+			return timeForSearch(threadSize, endOfPeriod);
+		}, budgetSeconds, 3, settings.startOfPeriod.getYear());
+		final List<GeneticTuner.Configuration> best = tuner.tune(configurations);
+		settings.searcherType = searcherType;
+		System.out.println("Last rung:");
+		for (GeneticTuner.Configuration configuration : best) {
+			printConfiguration(configuration);
+		}
+		System.out.println("Pareto front:");
+		for (GeneticTuner.Configuration configuration : GeneticTuner.paretoFront(tuner.getEvaluated())) {
+			printConfiguration(configuration);
+			record(new BenchmarkRecord(settings.scenario + " tuner " + configuration).withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER)
+					.withThreads(threadSize).withPeriodDays(Days.daysBetween(settings.startOfPeriod, endDate).getDays())
+					.withSeconds(configuration.getSeconds()).withAvGain(configuration.getAvGain()));
+		}
+	}
+
+	private void printConfiguration(GeneticTuner.Configuration configuration) {
+		System.out.println(configuration + " " + configuration.getRuns() + " " + settings.format(configuration.getSeconds()) + " "
+				+ settings.format(configuration.getAvGain()));
+	}
+
+	private void record(BenchmarkRecord record) throws IOException {
+		if (sink != null)
+			sink.write(record);
+	}
+
+	/**
+	 * Indexed genetic search with maxSelectionIndex generations vs the same
+	 * search (same seed, so the same populations until it stops) with a
+	 * plateau of the best cost over plateauGenerations. Prints generations,
+	 * seconds and best avGain of both, the stop reason, time saved and avGain
+	 * lost.
+	 */
+	public void calculateConvergence(LocalDate endDate, int threadSize, int plateauGenerations, double epsilon) throws Exception {
+		final IndexedGridList list = getIndexedGridList(getDateRepresentation(endDate));
+		final long seed = settings.startOfPeriod.getYear();
+		final IndexedGeneticSearcher fixed = IndexedGeneticSearcher.getBuilder().withIndexedGridList(list).withStrategySelector(createSelector())
+				.withThreadAmount(threadSize).withExecutorType(settings.executorType).withMaxPopulationsAmount(settings.maxSelectionIndex)
+				.withPopulationSize(settings.populationSize).withBestPart(settings.bestPart).withCrossoverPart(settings.crossoverPart).withSeed(seed).build();
+		final double fixedAvGain = fixed.waitAndGetSelector().getStrategies().get(0).getAvGain();
+		final IndexedGeneticSearcher early = IndexedGeneticSearcher.getBuilder().withIndexedGridList(list).withStrategySelector(createSelector())
+				.withThreadAmount(threadSize).withExecutorType(settings.executorType).withMaxPopulationsAmount(settings.maxSelectionIndex)
+				.withPopulationSize(settings.populationSize).withBestPart(settings.bestPart).withCrossoverPart(settings.crossoverPart).withSeed(seed)
+				.withPlateau(IndexedGeneticSearcher.PlateauCost.BEST, plateauGenerations, epsilon).build();
+		final double earlyAvGain = early.waitAndGetSelector().getStrategies().get(0).getAvGain();
+
+		System.out.println(settings.maxSelectionIndex + " " + settings.populationSize + " fixed " + fixed.getGenerations() + " "
+				+ settings.format(fixed.getSeconds()) + " " + settings.format(fixedAvGain) + " " + early.getStopReason() + " " + early.getGenerations() + " "
+				+ settings.format(early.getSeconds()) + " " + settings.format(earlyAvGain) + " saved " + settings.format(fixed.getSeconds() - early.getSeconds())
+				+ " lost " + settings.format(fixedAvGain - earlyAvGain));
+		final int days = Days.daysBetween(settings.startOfPeriod, endDate).getDays();
+		record(new BenchmarkRecord(settings.scenario + " fixed generations").withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withSeconds(fixed.getSeconds()).withAvGain(fixedAvGain));
+		record(new BenchmarkRecord(settings.scenario + " plateau " + plateauGenerations).withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER)
+				.withThreads(threadSize).withPeriodDays(days).withSeconds(early.getSeconds()).withAvGain(earlyAvGain));
+	}
+
+	/**
+	 * Exhaustive grid search vs {@link PartitionedGridSearcher} with a
+	 * {@link FidelityScreening} (screeningStockPart, screeningPeriodPart,
+	 * screeningPromotion), then indexed genetic search without and with
+	 * screening from the same seed. Prints time and full simulations avoided of
+	 * both, top-K agreement with the exhaustive grid search and avGain of the
+	 * best genetic strategy.
+	 */
+	public void calculateScreening(LocalDate endDate, int threadSize) throws Exception {
+		final IndexedGridList list = getIndexedGridList(getDateRepresentation(endDate));
+		final int days = Days.daysBetween(settings.startOfPeriod, endDate).getDays();
+
+		final TimeTracker exhaustiveTracker = new TimeTracker();
+		final ConcurrentTopKSelector exhaustive = new ConcurrentTopKSelector(settings.storedStrategyAmount, WeightedMetricCost.defaultWeights());
+		PartitionedGridSearcher.getBuilder().setIndexedGridList(list).setSelector(createSelector()).setTopKSelector(exhaustive).setThreadAmount(threadSize)
+				.setExecutorType(settings.executorType).build().waitAndGetSelector();
+		final double exhaustiveTime = TimeTracker.lengthInSeconds(exhaustiveTracker.finish());
+		final FidelityScreening gridScreening = createScreening();
+		final TimeTracker screenedTracker = new TimeTracker();
+		final ConcurrentTopKSelector screened = new ConcurrentTopKSelector(settings.storedStrategyAmount, WeightedMetricCost.defaultWeights());
+		PartitionedGridSearcher.getBuilder().setIndexedGridList(list).setSelector(createSelector()).setTopKSelector(screened).setScreening(gridScreening)
+				.setThreadAmount(threadSize).setExecutorType(settings.executorType).build().waitAndGetSelector();
+		final double screenedTime = TimeTracker.lengthInSeconds(screenedTracker.finish());
+		System.out.println("grid " + days + " " + settings.format(exhaustiveTime) + " " + settings.format(screenedTime) + " " + gridScreening + " agreement "
+				+ settings.format(FidelityScreening.agreement(exhaustive.getIndexes(), screened.getIndexes())));
+		record(new BenchmarkRecord(settings.scenario + " exhaustive").withSearcherType(SearcherType.PARTITIONED_GRID_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withPoints(list.size()).withSeconds(exhaustiveTime));
+		record(new BenchmarkRecord(settings.scenario + " screened").withSearcherType(SearcherType.PARTITIONED_GRID_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withPoints(list.size()).withSeconds(screenedTime));
+
+		final long seed = System.nanoTime();
+		final IndexedGeneticSearcher full = IndexedGeneticSearcher.getBuilder().withIndexedGridList(list).withStrategySelector(createSelector())
+				.withThreadAmount(threadSize).withExecutorType(settings.executorType).withMaxPopulationsAmount(settings.maxSelectionIndex)
+				.withPopulationSize(settings.populationSize).withBestPart(settings.bestPart).withCrossoverPart(settings.crossoverPart).withSeed(seed).build();
+		final double fullAvGain = full.waitAndGetSelector().getStrategies().get(0).getAvGain();
+		final FidelityScreening geneticScreening = createScreening();
+		final IndexedGeneticSearcher screenedGenetic = IndexedGeneticSearcher.getBuilder().withIndexedGridList(list).withStrategySelector(createSelector())
+				.withThreadAmount(threadSize).withExecutorType(settings.executorType).withMaxPopulationsAmount(settings.maxSelectionIndex)
+				.withPopulationSize(settings.populationSize).withBestPart(settings.bestPart).withCrossoverPart(settings.crossoverPart).withSeed(seed)
+				.withScreening(geneticScreening).build();
+		final double screenedAvGain = screenedGenetic.waitAndGetSelector().getStrategies().get(0).getAvGain();
+		System.out.println("genetic " + days + " " + settings.format(full.getSeconds()) + " " + settings.format(screenedGenetic.getSeconds()) + " "
+				+ geneticScreening + " avGain " + settings.format(fullAvGain) + " " + settings.format(screenedAvGain));
+		record(new BenchmarkRecord(settings.scenario + " exhaustive").withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withSeconds(full.getSeconds()).withAvGain(fullAvGain));
+		record(new BenchmarkRecord(settings.scenario + " screened").withSearcherType(SearcherType.INDEXED_GENETIC_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withSeconds(screenedGenetic.getSeconds()).withAvGain(screenedAvGain));
+	}
+
+	/**
+	 * Partitioned grid search over [startOfPeriod, endDate) without and with
+	 * {@link EarlyAbort}, both ranking by earlyAbortCost. Prints days, both
+	 * times, the early abort counters and the part of the exhaustive top-K
+	 * (compared by grid index) the filtered search still found.
+	 */
+	public void calculateEarlyAbort(LocalDate endDate, int threadSize) throws Exception {
+		final IndexedGridList list = getIndexedGridList(getDateRepresentation(endDate));
+		final int days = Days.daysBetween(settings.startOfPeriod, endDate).getDays();
+
+		final TimeTracker exhaustiveTracker = new TimeTracker();
+		final ConcurrentTopKSelector exhaustive = new ConcurrentTopKSelector(settings.storedStrategyAmount, settings.earlyAbortCost);
+		PartitionedGridSearcher.getBuilder().setIndexedGridList(list).setSelector(createSelector(settings.earlyAbortCost)).setTopKSelector(exhaustive)
+				.setThreadAmount(threadSize).setExecutorType(settings.executorType).build().waitAndGetSelector();
+		final double exhaustiveTime = TimeTracker.lengthInSeconds(exhaustiveTracker.finish());
+		final ConcurrentTopKSelector filtered = new ConcurrentTopKSelector(settings.storedStrategyAmount, settings.earlyAbortCost);
+		final EarlyAbort earlyAbort = new EarlyAbort(filtered, settings.earlyAbortPrefix);
+		final TimeTracker filteredTracker = new TimeTracker();
+		PartitionedGridSearcher.getBuilder().setIndexedGridList(list).setSelector(createSelector(settings.earlyAbortCost)).setTopKSelector(filtered)
+				.setEarlyAbort(earlyAbort).setThreadAmount(threadSize).setExecutorType(settings.executorType).build().waitAndGetSelector();
+		final double filteredTime = TimeTracker.lengthInSeconds(filteredTracker.finish());
+		System.out.println(days + " " + settings.format(exhaustiveTime) + " " + settings.format(filteredTime) + " " + earlyAbort + " agreement "
+				+ settings.format(FidelityScreening.agreement(exhaustive.getIndexes(), filtered.getIndexes())));
+		record(new BenchmarkRecord(settings.scenario + " exhaustive").withSearcherType(SearcherType.PARTITIONED_GRID_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withPoints(list.size()).withSeconds(exhaustiveTime));
+		record(new BenchmarkRecord(settings.scenario + " early abort").withSearcherType(SearcherType.PARTITIONED_GRID_SEARCHER).withThreads(threadSize)
+				.withPeriodDays(days).withPoints(list.size()).withSeconds(filteredTime));
+	}
+
+	/**
+	 * Partitioned grid search over [startOfPeriod, endDate) that records every
+	 * simulation into a {@link ResultStore} (in a temporary directory), then
+	 * the top storedStrategyAmount of all rows under several weightings, the
+	 * GetBestStatistics one first. Prints rows and search time, then scan
+	 * time, rows per second and grid index of the best row per weighting.
+	 */
+	public void calculateResultStore(LocalDate endDate, int threadSize) throws Exception {
+		final WeightedMetricCost[] weightings = { //
+				new WeightedMetricCost().withParameter(MetricType.avGain, 0.5).withParameter(MetricType.winProb, 1000.0).withParameter(MetricType.kelly, 0.6)
+						.withParameter(MetricType.maxLoss, -0.4).withParameter(MetricType.month12AvGain, 0.6), //
+				new WeightedMetricCost().withParameter(MetricType.avGain, 1.0), //
+				new WeightedMetricCost().withParameter(MetricType.kelly, 1.0).withParameter(MetricType.maxLoss, -1.0) };
+		final Path directory = Files.createTempDirectory("results");
+		try (ResultStore store = ResultStore.create(directory, settings.resultStoreSegmentRows)) {
+			final TimeTracker searchTracker = new TimeTracker();
+			PartitionedGridSearcher.getBuilder().setIndexedGridList(getIndexedGridList(getDateRepresentation(endDate))).setSelector(createSelector())
+					.setResultStore(store).setThreadAmount(threadSize).setExecutorType(settings.executorType).build().waitAndGetSelector();
+			final double searchTime = TimeTracker.lengthInSeconds(searchTracker.finish());
+			System.out.print(store.size() + " " + settings.format(searchTime));
+			for (WeightedMetricCost cost : weightings) {
+				final TimeTracker scanTracker = new TimeTracker();
+				final List<Long> top = store.topK(cost, settings.storedStrategyAmount);
+				final double scanTime = TimeTracker.lengthInSeconds(scanTracker.finish());
+				System.out.print(" " + settings.format(scanTime) + " " + settings.format(store.size() / scanTime) + " " + (top.isEmpty() ? "-" : store.index(top.get(0))));
+				record(new BenchmarkRecord(settings.scenario + " result store scan").withThreads(1).withPoints(store.size()).withSeconds(scanTime));
+			}
+			System.out.println();
+		} finally {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path file : files) {
+					Files.deleteIfExists(file);
+				}
+			}
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	private FidelityScreening createScreening() {
+		return new FidelityScreening(settings.screeningStockPart, settings.screeningPeriodPart, settings.screeningPromotion);
+	}
+
+	private IndexedGeneticSearcher createIndexedGeneticSearcher(IndexedGridList list, int threadSize, PopulationSnapshot warmStart) {
+		return IndexedGeneticSearcher.getBuilder().withIndexedGridList(list).withStrategySelector(createSelector()).withThreadAmount(threadSize)
+				.withExecutorType(settings.executorType).withMaxPopulationsAmount(settings.maxSelectionIndex).withPopulationSize(settings.populationSize)
+				.withBestPart(settings.bestPart).withCrossoverPart(settings.crossoverPart).withWarmStart(warmStart).withSnapshotBestSize(settings.storedStrategyAmount).build();
 	}
 
 	static public void calculateAmountOfSimulations(StockStorage stockStorage, PerformanceCalculatorSettings settings) throws StrategySearcherException {
@@ -90,22 +443,25 @@ class PerformanceCalculator {
 		final LocalDate newDate = settings.startOfPeriod.plusDays(31);
 		final int[] threadToWarmUp = { 1, 2, 8 };
 		for (int i : threadToWarmUp) {
-			calculateAverageTime(newDate, false, i);
+			calculateAverageTime(newDate, false, i, null);
 		}
 		final LocalDate tenDate = settings.startOfPeriod.plusDays(10);
 		for (int i : threadToWarmUp) {
-			calculateAverageTime(tenDate, false, i);
+			calculateAverageTime(tenDate, false, i, null);
 		}
 	}
 
-	private double calculateAverageTime(LocalDate endDate, boolean printData, int threadAmount) throws Exception {
+	private double calculateAverageTime(LocalDate endDate, boolean printData, int threadAmount, ScalabilityReport report) throws Exception {
 		final String endOfPeriod = getDateRepresentation(endDate);
 
 		double time = 0.0;
 		double avGain = 0.0;
 		for (int i = 0; i < settings.calculationsForAverage; ++i) {
 			final PerformanceResult result = timeForSearch(threadAmount, endOfPeriod);
-			time += TimeTracker.lengthInSeconds(result.timeTracker.length());
+			final double runTime = TimeTracker.lengthInSeconds(result.timeTracker.length());
+			if (report != null)
+				report.add(threadAmount, runTime);
+			time += runTime;
 			avGain += result.sumAvGainForBest;
 		}
 
@@ -115,23 +471,88 @@ class PerformanceCalculator {
 		if (printData && settings.printAvGainAndTime) {
 			System.out.print(" " + settings.format(avTime) + " " + settings.format(avRes) + " ");
 		}
+		if (printData)
+			record(new BenchmarkRecord(settings.scenario).withSearcherType(settings.searcherType).withThreads(threadAmount)
+					.withPeriodDays(Days.daysBetween(settings.startOfPeriod, endDate).getDays()).withSeconds(avTime).withAvGain(avRes));
 
 		return avTime;
 	}
 
 	public PerformanceResult timeForSearch(int threadSize, String endOfPeriod)
-			throws StrategySearcherException, BadAlgorithmException, BadSignalException, InterruptedException {
+			throws StrategySearcherException, BadAlgorithmException, BadSignalException, InterruptedException, ExecutionException {
 		final TimeTracker timeTracker = new TimeTracker();
 
-		final StrategySearcher searcher = generateSearcher(threadSize, endOfPeriod);
-		final List<TradingStrategy> strategies = searcher.waitAndGetSelector().getStrategies();
+		final List<TradingStrategy> strategies = search(threadSize, endOfPeriod).getStrategies();
 		return createResult(strategies, timeTracker);
 	}
 
+	private StrategySelector search(int threadSize, String endOfPeriod) throws StrategySearcherException, InterruptedException, ExecutionException {
+		final SearchProfile profile = settings.printPhases ? new SearchProfile() : SearchProfile.DISABLED;
+		if (settings.searcherType == SearcherType.PARTITIONED_GRID_SEARCHER) {
+			final WeightedMetricCost cost = settings.earlyAbort ? settings.earlyAbortCost : WeightedMetricCost.defaultWeights();
+			final ConcurrentTopKSelector topKSelector = settings.earlyAbort ? new ConcurrentTopKSelector(settings.storedStrategyAmount, cost)
+					: createTopKSelector();
+			final EarlyAbort earlyAbort = settings.earlyAbort ? new EarlyAbort(topKSelector, settings.earlyAbortPrefix) : null;
+			final StrategySelector selector = PartitionedGridSearcher.getBuilder(). //
+					setIndexedGridList(getIndexedGridList(endOfPeriod)). //
+					setSelector(createSelector(cost)). //
+					setTopKSelector(topKSelector). //
+					setEarlyAbort(earlyAbort). //
+					setSearchProfile(profile). //
+					setThreadAmount(threadSize). //
+					setExecutorType(settings.executorType).build().waitAndGetSelector();
+			if (earlyAbort != null)
+				System.out.print(" (" + earlyAbort + ")");
+			printPhases(profile);
+			return selector;
+		} else if (settings.searcherType == SearcherType.INDEXED_GENETIC_SEARCHER) {
+			final FitnessCache cache = settings.fitnessCacheSize > 0 ? new FitnessCache(settings.fitnessCacheSize, settings.fitnessCacheEviction) : null;
+			final StrategySelector selector = IndexedGeneticSearcher.getBuilder().withIndexedGridList(getIndexedGridList(endOfPeriod))
+					.withStrategySelector(createSelector()).withTopKSelector(createTopKSelector()).withThreadAmount(threadSize).withExecutorType(settings.executorType)
+					.withMaxPopulationsAmount(settings.maxSelectionIndex).withPopulationSize(settings.populationSize).withBestPart(settings.bestPart)
+					.withCrossoverPart(settings.crossoverPart).withFitnessCache(cache).withSearchProfile(profile).withParallelPopulation(settings.parallelPopulation)
+					.build().waitAndGetSelector();
+			if (cache != null && settings.printAdditionalInfo)
+				System.out.print(" (" + cache + ")");
+			printPhases(profile);
+			return selector;
+		}
+		return generateSearcher(threadSize, endOfPeriod).waitAndGetSelector();
+	}
+
+	/**
+	 * Phase, count, p50, p99, max (microseconds), total (seconds); queue wait
+	 * per worker follows the phases.
+	 */
+	private void printPhases(SearchProfile profile) {
+		if (profile.isEnabled()) {
+			System.out.println();
+			System.out.print(profile.print(settings));
+		}
+	}
+
+	private IndexedGridList getIndexedGridList(String endOfPeriod) {
+		return SimulatorSettingsGenerator.getIndexedGridList(settings.performanceForGridTest, stockStorage, settings.elements,
+				getDateRepresentation(settings.startOfPeriod), endOfPeriod);
+	}
+
+	private StrategySelector createSelector() {
+		return createSelector(WeightedMetricCost.defaultWeights());
+	}
+
+	private StrategySelector createSelector(WeightedMetricCost cost) {
+		return new StatisticsByCostSelector(settings.storedStrategyAmount, cost, new MetricsSameComparator());
+	}
+
+	private ConcurrentTopKSelector createTopKSelector() {
+		if (!settings.concurrentSelector)
+			return null;
+		return new ConcurrentTopKSelector(settings.storedStrategyAmount, WeightedMetricCost.defaultWeights());
+	}
+
 	private StrategySearcher generateSearcher(int threadSize, String endOfPeriod) throws InterruptedException {
 		final String startDate = getDateRepresentation(settings.startOfPeriod);
-		final StrategySelector selector = new StatisticsByCostSelector(settings.storedStrategyAmount, new CostWeightedSumFunction(),
-				new MetricsSameComparator());
+		final StrategySelector selector = createSelector();
 		if (settings.searcherType == SearcherType.GRID_SEARCHER) {
 			final SimulatorSettingsGridList list = SimulatorSettingsGenerator
 					.getGridFactory(settings.performanceForGridTest, stockStorage, settings.elements, startDate, endOfPeriod).getList();
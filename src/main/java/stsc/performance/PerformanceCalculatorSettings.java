@@ -6,6 +6,8 @@ import java.util.List;
 
 import org.joda.time.LocalDate;
 
+import stsc.general.statistic.MetricType;
+
 class PerformanceCalculatorSettings {
 
 	final DecimalFormat formatter = new DecimalFormat("#0.000000000");
@@ -23,12 +25,49 @@ class PerformanceCalculatorSettings {
 	boolean printAvGainAndTime = false;
 	boolean printStarterInfo = true;
 	boolean performanceForGridTest = false;
+	boolean printEnumerationThroughput = false;
+	boolean printScalability = false;
+	boolean concurrentSelector = false;
+	boolean sharedStocks = false;
+	boolean earlyAbort = false;
+	boolean printPhases = false;
+	boolean parallelPopulation = false;
+
+	double efficiencyThreshold = 0.7;
+	double earlyAbortPrefix = 0.1;
+	/**
+	 * Cost of early abort searches, the prefix of a point can only bound a
+	 * cost with negative maxLoss weights (see {@link EarlyAbort}).
+	 */
+	final WeightedMetricCost earlyAbortCost = new WeightedMetricCost().withParameter(MetricType.maxLoss, -1.0);
+	double screeningStockPart = 0.25;
+	double screeningPeriodPart = 0.25;
+	double screeningPromotion = 0.1;
+
+	long enumerationPoints = 100000;
+	long leaseSize = 1000;
+	int resultStoreSegmentRows = 1 << 20;
 
 	int maxSelectionIndex = 10;
 	int populationSize = 10;
+	double bestPart = 0.94;
+	double crossoverPart = 0.86;
 
 	final List<String> elements = Arrays.asList(new String[] { "open", "high", "low", "close", "value", "open", "high", "low", "close" });
 	SearcherType searcherType = SearcherType.GENETIC_SEARCHER;
+	ExecutorType executorType = ExecutorType.FIXED_THREAD_POOL;
+
+	StorageType storageType = StorageType.HEAP;
+	String columnsDirectory = "columns";
+
+	/**
+	 * {@link ResultSink} file (*.csv or JSON lines), null to only print.
+	 */
+	String resultFile = System.getProperty("stsc.results");
+	String scenario = "search";
+
+	int fitnessCacheSize = 0;
+	FitnessCache.Eviction fitnessCacheEviction = FitnessCache.Eviction.LRU;
 
 	public String format(double value) {
 		return formatter.format(value);
@@ -38,7 +77,7 @@ class PerformanceCalculatorSettings {
 		return getDateRepresentation(startOfPeriod);
 	}
 
-	static private String getDateRepresentation(LocalDate date) {
+	static String getDateRepresentation(LocalDate date) {
 		int day = date.getDayOfMonth();
 		int month = date.getMonthOfYear();
 		int year = date.getYear();
@@ -0,0 +1,114 @@
+package stsc.performance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Final population and best individuals of an {@link IndexedGeneticSearcher}
+ * run, stored as grid indexes with cost and {@link MetricVector}, so a next
+ * search over the same {@link GridSpace} can start from them. Binary layout
+ * (DataOutput, big-endian): magic, version, grid size, metric vector size, then
+ * population and best sections, each an int amount of (long index, double
+ * cost, double[] metrics) records.
+ */
+final class PopulationSnapshot {
+
+	private static final int MAGIC = 0x53545350;
+	private static final int VERSION = 1;
+
+	static final class Individual {
+		final long index;
+		final double cost;
+		final double[] metrics;
+
+		Individual(long index, double cost, double[] metrics) {
+			this.index = index;
+			this.cost = cost;
+			this.metrics = metrics;
+		}
+	}
+
+	private final long gridSize;
+	private final List<Individual> population;
+	private final List<Individual> best;
+
+	PopulationSnapshot(long gridSize, List<Individual> population, List<Individual> best) {
+		this.gridSize = gridSize;
+		this.population = Collections.unmodifiableList(population);
+		this.best = Collections.unmodifiableList(best);
+	}
+
+	long getGridSize() {
+		return gridSize;
+	}
+
+	List<Individual> getPopulation() {
+		return population;
+	}
+
+	/**
+	 * @return best individuals seen by the search, best cost first
+	 */
+	List<Individual> getBest() {
+		return best;
+	}
+
+	void writeTo(Path path) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(gridSize);
+			output.writeInt(MetricVector.SIZE);
+			write(output, population);
+			write(output, best);
+		}
+	}
+
+	private static void write(DataOutputStream output, List<Individual> individuals) throws IOException {
+		output.writeInt(individuals.size());
+		for (Individual individual : individuals) {
+			output.writeLong(individual.index);
+			output.writeDouble(individual.cost);
+			for (double metric : individual.metrics) {
+				output.writeDouble(metric);
+			}
+		}
+	}
+
+	static PopulationSnapshot readFrom(Path path) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				throw new IOException(path + " is not a population snapshot");
+			final long gridSize = input.readLong();
+			final int metricsSize = input.readInt();
+			if (metricsSize != MetricVector.SIZE)
+				throw new IOException(path + " has " + metricsSize + " metrics, expected " + MetricVector.SIZE);
+			final List<Individual> population = read(input);
+			return new PopulationSnapshot(gridSize, population, read(input));
+		}
+	}
+
+	private static List<Individual> read(DataInputStream input) throws IOException {
+		final int size = input.readInt();
+		final List<Individual> result = new ArrayList<>(size);
+		for (int i = 0; i < size; ++i) {
+			final long index = input.readLong();
+			final double cost = input.readDouble();
+			final double[] metrics = new double[MetricVector.SIZE];
+			for (int m = 0; m < metrics.length; ++m) {
+				metrics[m] = input.readDouble();
+			}
+			result.add(new Individual(index, cost, metrics));
+		}
+		return result;
+	}
+
+}
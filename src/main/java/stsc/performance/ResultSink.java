@@ -0,0 +1,59 @@
+package stsc.performance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Appends {@link BenchmarkRecord}s to a file: CSV (with a header line) for
+ * *.csv files, one JSON object per line otherwise. Drivers get the file from
+ * {@link PerformanceCalculatorSettings#resultFile} (-Dstsc.results=...).
+ */
+final class ResultSink {
+
+	private final Path file;
+	private final boolean csv;
+
+	ResultSink(Path file) {
+		this.file = file;
+		this.csv = file.toString().endsWith(".csv");
+	}
+
+	/**
+	 * @return null when file is null
+	 */
+	static ResultSink create(String file) {
+		return file == null ? null : new ResultSink(Paths.get(file));
+	}
+
+	synchronized void write(BenchmarkRecord record) throws IOException {
+		final List<String> lines = new ArrayList<>();
+		if (csv && (!Files.exists(file) || Files.size(file) == 0))
+			lines.add(BenchmarkRecord.csvHeader());
+		lines.add(csv ? record.toCsv() : record.toJson());
+		Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * @return records of a JSON lines or CSV file written by a sink
+	 */
+	static List<BenchmarkRecord> read(Path file) throws IOException {
+		if (!Files.exists(file))
+			return Collections.emptyList();
+		final boolean csv = file.toString().endsWith(".csv");
+		final List<BenchmarkRecord> result = new ArrayList<>();
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			if (line.trim().isEmpty() || (csv && line.equals(BenchmarkRecord.csvHeader())))
+				continue;
+			result.add(csv ? BenchmarkRecord.fromCsv(line) : BenchmarkRecord.fromJson(line));
+		}
+		return result;
+	}
+
+}
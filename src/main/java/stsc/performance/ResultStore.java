@@ -0,0 +1,286 @@
+package stsc.performance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only columnar store of every simulated result: settings fingerprint
+ * ({@link SettingsFingerprint}), grid index and the full {@link MetricVector}
+ * per row. Rows go to segment files of segmentRows rows in a directory, memory
+ * mapped, so the data lives off the heap and the OS spills it to disk.
+ * {@link #topK(WeightedMetricCost, int)} ranks all rows under any weighting
+ * without simulating again; the cost is accumulated column by column over
+ * blocks of rows, and only columns with a non-zero weight are read.
+ * <p>
+ * Workers append through their own {@link Appender}, which reserves ranges of
+ * {@link #APPEND_ROWS} rows from an atomic counter and writes them without a
+ * lock. A reserved row that is never written is a hole: its grid index stays
+ * -1 and {@link #topK(WeightedMetricCost, int)} skips it. The row counts of
+ * the segment headers are written by {@link #flush()} and {@link #close()}.
+ */
+final class ResultStore implements Closeable {
+
+	static final String EXTENSION = ".results";
+	static final int MAGIC = 0x53545352;
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 32;
+
+	static final int APPEND_ROWS = 256;
+
+	private static final int BLOCK_ROWS = 1024;
+
+	private final Path directory;
+	private final int segmentRows;
+	private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+	private final AtomicLong rows = new AtomicLong();
+
+	private ResultStore(Path directory, int segmentRows) {
+		this.directory = directory;
+		this.segmentRows = segmentRows;
+	}
+
+	/**
+	 * Layout of a segment: magic, version, metrics, segmentRows, rows (long),
+	 * padding; then segmentRows fingerprints (longs), segmentRows grid indexes
+	 * (longs, -1 for rows not written) and segmentRows doubles for every
+	 * metric.
+	 */
+	static long fileSize(int segmentRows) {
+		return HEADER_SIZE + (2L + MetricVector.SIZE) * segmentRows * 8;
+	}
+
+	private static int columnOffset(int column, int segmentRows) {
+		return HEADER_SIZE + column * segmentRows * 8;
+	}
+
+	private static Path segmentFile(Path directory, int segment) {
+		return directory.resolve(String.format("%06d", segment) + EXTENSION);
+	}
+
+	/**
+	 * @param directory
+	 *            should not contain segments of another store
+	 * @param segmentRows
+	 *            rows per segment file, a segment should fit into 2 GB
+	 */
+	static ResultStore create(Path directory, int segmentRows) throws IOException {
+		if (segmentRows <= 0 || fileSize(segmentRows) > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Segment of " + segmentRows + " rows can not be mapped");
+		Files.createDirectories(directory);
+		if (Files.exists(segmentFile(directory, 0)))
+			throw new IOException("Result store already exists: " + directory);
+		return new ResultStore(directory, segmentRows);
+	}
+
+	/**
+	 * Maps the segments of an existing store, new rows are appended after
+	 * the stored ones. Every segment but the last should be full.
+	 */
+	static ResultStore open(Path directory) throws IOException {
+		final Path first = segmentFile(directory, 0);
+		if (!Files.exists(first))
+			throw new IOException("No result store: " + directory);
+		final ResultStore store = new ResultStore(directory, map(first).getInt(12));
+		for (int segment = 0; Files.exists(segmentFile(directory, segment)); ++segment) {
+			final MappedByteBuffer buffer = map(segmentFile(directory, segment));
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != MetricVector.SIZE || buffer.getInt(12) != store.segmentRows)
+				throw new IOException("Not a result store segment: " + segmentFile(directory, segment));
+			final long segmentSize = buffer.getLong(16);
+			final boolean last = !Files.exists(segmentFile(directory, segment + 1));
+			if (segmentSize < 0 || segmentSize > store.segmentRows || (!last && segmentSize != store.segmentRows))
+				throw new IOException("Segment of " + segmentSize + " rows in the middle of a result store: " + segmentFile(directory, segment));
+			store.segments.add(buffer);
+			store.rows.set((long) segment * store.segmentRows + segmentSize);
+		}
+		return store;
+	}
+
+	private static MappedByteBuffer map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		}
+	}
+
+	private MappedByteBuffer newSegment() throws IOException {
+		final Path file = segmentFile(directory, segments.size());
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, fileSize(segmentRows));
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, MetricVector.SIZE);
+			buffer.putInt(12, segmentRows);
+			buffer.putLong(16, 0);
+			for (int row = 0; row < segmentRows; ++row) {
+				buffer.putLong(columnOffset(1, segmentRows) + row * 8, -1);
+			}
+			return buffer;
+		}
+	}
+
+	/**
+	 * Maps the segments up to segment; new segments are created under the
+	 * lock, mapped ones are read without it.
+	 */
+	private MappedByteBuffer segment(int segment) throws IOException {
+		if (segment < segments.size())
+			return segments.get(segment);
+		synchronized (segments) {
+			while (segments.size() <= segment) {
+				segments.add(newSegment());
+			}
+			return segments.get(segment);
+		}
+	}
+
+	/**
+	 * Append cursor of one worker, not thread safe. Closing gives back the
+	 * unused part of the reserved range when no other appender reserved rows
+	 * after it, otherwise that part stays a hole.
+	 */
+	final class Appender implements Closeable {
+
+		private long next;
+		private long end;
+
+		private Appender() {
+		}
+
+		/**
+		 * @param metrics
+		 *            {@link MetricVector}
+		 */
+		void append(long fingerprint, long index, double[] metrics) throws IOException {
+			if (next == end) {
+				next = rows.getAndAdd(APPEND_ROWS);
+				end = next + APPEND_ROWS;
+			}
+			final MappedByteBuffer segment = segment((int) (next / segmentRows));
+			final int row = (int) (next % segmentRows);
+			segment.putLong(columnOffset(0, segmentRows) + row * 8, fingerprint);
+			for (int m = 0; m < MetricVector.SIZE; ++m) {
+				segment.putDouble(columnOffset(2 + m, segmentRows) + row * 8, metrics[m]);
+			}
+			segment.putLong(columnOffset(1, segmentRows) + row * 8, index);
+			next += 1;
+		}
+
+		@Override
+		public void close() {
+			rows.compareAndSet(end, next);
+			next = end;
+		}
+	}
+
+	Appender appender() {
+		return new Appender();
+	}
+
+	/**
+	 * @return reserved rows, holes included
+	 */
+	long size() {
+		return rows.get();
+	}
+
+	long fingerprint(long row) {
+		return segments.get((int) (row / segmentRows)).getLong(columnOffset(0, segmentRows) + (int) (row % segmentRows) * 8);
+	}
+
+	/**
+	 * @return grid index, -1 for a hole
+	 */
+	long index(long row) {
+		return segments.get((int) (row / segmentRows)).getLong(columnOffset(1, segmentRows) + (int) (row % segmentRows) * 8);
+	}
+
+	double[] metrics(long row) {
+		final ByteBuffer segment = segments.get((int) (row / segmentRows));
+		final double[] result = new double[MetricVector.SIZE];
+		for (int m = 0; m < result.length; ++m) {
+			result[m] = segment.getDouble(columnOffset(2 + m, segmentRows) + (int) (row % segmentRows) * 8);
+		}
+		return result;
+	}
+
+	/**
+	 * @return rows (for {@link #fingerprint(long)}, {@link #index(long)},
+	 *         {@link #metrics(long)}) of the k best costs, best first
+	 */
+	List<Long> topK(WeightedMetricCost cost, int k) {
+		final IndexTopK result = new IndexTopK(k);
+		final double[] costs = new double[BLOCK_ROWS];
+		final double[] values = new double[BLOCK_ROWS];
+		final DoubleBuffer[] columns = new DoubleBuffer[MetricVector.SIZE];
+		final long size = Math.min(rows.get(), (long) segments.size() * segmentRows);
+		for (int s = 0; s < segments.size(); ++s) {
+			final long first = (long) s * segmentRows;
+			final int segmentSize = (int) Math.max(0, Math.min(segmentRows, size - first));
+			final ByteBuffer indexColumn = segments.get(s).duplicate();
+			indexColumn.position(columnOffset(1, segmentRows));
+			final LongBuffer indexes = indexColumn.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			for (int m = 0; m < columns.length; ++m) {
+				final ByteBuffer b = segments.get(s).duplicate();
+				b.position(columnOffset(2 + m, segmentRows));
+				columns[m] = b.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			}
+			for (int from = 0; from < segmentSize; from += BLOCK_ROWS) {
+				final int length = Math.min(BLOCK_ROWS, segmentSize - from);
+				Arrays.fill(costs, 0, length, 0.0);
+				for (int m = 0; m < columns.length; ++m) {
+					final double weight = cost.weight(m);
+					if (weight == 0.0)
+						continue;
+					columns[m].position(from);
+					columns[m].get(values, 0, length);
+					for (int i = 0; i < length; ++i) {
+						costs[i] += weight * values[i];
+					}
+				}
+				for (int i = 0; i < length; ++i) {
+					if (indexes.get(from + i) >= 0)
+						result.add(first + from + i, costs[i]);
+				}
+			}
+		}
+		return result.indexes();
+	}
+
+	/**
+	 * Writes the row count of every segment into its header and the mapped
+	 * segments to disk.
+	 */
+	synchronized void flush() {
+		final long size = rows.get();
+		for (int s = 0; s < segments.size(); ++s) {
+			final MappedByteBuffer segment = segments.get(s);
+			segment.putLong(16, Math.max(0, Math.min(segmentRows, size - (long) s * segmentRows)));
+			segment.force();
+		}
+	}
+
+	/**
+	 * Appenders should be closed before the store.
+	 */
+	@Override
+	public void close() {
+		flush();
+	}
+
+}
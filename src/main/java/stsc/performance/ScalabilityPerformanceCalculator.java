@@ -0,0 +1,46 @@
+package stsc.performance;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.storage.AlgorithmsStorage;
+import stsc.storage.mocks.StockStorageMock;
+
+class ScalabilityPerformanceCalculator {
+
+	private static Logger logger = LogManager.getLogger("ScalabilityPerformance");
+
+	private static void initialize() {
+		try {
+			AlgorithmsStorage.getInstance();
+			StockStorageMock.getStockStorage();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public static void main(String[] args) {
+		logger.debug("Process started");
+		initialize();
+		logger.debug("Algorithms and Stocks reader");
+		try {
+			final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+			settings.performanceForGridTest = true;
+			settings.shouldWarmUp = true;
+			settings.threadsFrom = 1;
+			settings.threadsTo = Runtime.getRuntime().availableProcessors();
+			settings.calculationsForAverage = 5;
+			settings.printScalability = true;
+
+			System.out.println("Grid Search");
+			settings.searcherType = SearcherType.GRID_SEARCHER;
+			new PerformanceCalculator(settings).calculateSmallStatistics();
+			System.out.println("Genetic Search");
+			settings.searcherType = SearcherType.GENETIC_SEARCHER;
+			new PerformanceCalculator(settings).calculateSmallStatistics();
+			logger.debug("Performance Calculator finished");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects search times per thread amount and derives speedup, parallel
+ * efficiency, run-to-run variance and fitted Amdahl / USL (universal
+ * scalability law) coefficients. Speedup is relative to the smallest measured
+ * thread amount, scaled by it (so threadsFrom = 2 assumes linear speedup up to
+ * 2 threads).
+ */
+final class ScalabilityReport {
+
+	private final TreeMap<Integer, List<Double>> samples = new TreeMap<>();
+
+	void add(int threads, double seconds) {
+		samples.computeIfAbsent(threads, k -> new ArrayList<>()).add(seconds);
+	}
+
+	double mean(int threads) {
+		double sum = 0.0;
+		for (double v : samples.get(threads)) {
+			sum += v;
+		}
+		return sum / samples.get(threads).size();
+	}
+
+	double variance(int threads) {
+		final List<Double> values = samples.get(threads);
+		if (values.size() < 2)
+			return 0.0;
+		final double mean = mean(threads);
+		double sum = 0.0;
+		for (double v : values) {
+			sum += (v - mean) * (v - mean);
+		}
+		return sum / (values.size() - 1);
+	}
+
+	double speedup(int threads) {
+		final int base = samples.firstKey();
+		return base * mean(base) / mean(threads);
+	}
+
+	double efficiency(int threads) {
+		return speedup(threads) / threads;
+	}
+
+	/**
+	 * Least squares fit of Amdahl's law 1/S = f + (1 - f)/n, rewritten as
+	 * 1/S - 1/n = f * (1 - 1/n).
+	 */
+	double amdahlSerialFraction() {
+		double xy = 0.0;
+		double xx = 0.0;
+		for (int n : samples.keySet()) {
+			final double x = 1.0 - 1.0 / n;
+			final double y = 1.0 / speedup(n) - 1.0 / n;
+			xy += x * y;
+			xx += x * x;
+		}
+		if (xx == 0.0)
+			return 0.0;
+		return Math.max(0.0, Math.min(1.0, xy / xx));
+	}
+
+	/**
+	 * Least squares fit of the USL S = n / (1 + sigma(n - 1) + kappa n(n - 1)),
+	 * rewritten as n/S - 1 = sigma (n - 1) + kappa n (n - 1).
+	 *
+	 * @return { sigma (contention), kappa (coherency) }
+	 */
+	double[] uslCoefficients() {
+		double aa = 0.0, ab = 0.0, bb = 0.0, ay = 0.0, by = 0.0;
+		for (int n : samples.keySet()) {
+			final double a = n - 1;
+			final double b = (double) n * (n - 1);
+			final double y = n / speedup(n) - 1.0;
+			aa += a * a;
+			ab += a * b;
+			bb += b * b;
+			ay += a * y;
+			by += b * y;
+		}
+		final double determinant = aa * bb - ab * ab;
+		if (determinant == 0.0)
+			return new double[] { aa == 0.0 ? 0.0 : ay / aa, 0.0 };
+		return new double[] { (ay * bb - by * ab) / determinant, (aa * by - ab * ay) / determinant };
+	}
+
+	/**
+	 * @return first measured thread amount with efficiency below threshold, or
+	 *         0 if there is no such one
+	 */
+	int efficiencyDropsBelow(double threshold) {
+		for (int n : samples.keySet()) {
+			if (efficiency(n) < threshold)
+				return n;
+		}
+		return 0;
+	}
+
+	void print(PerformanceCalculatorSettings settings) {
+		if (samples.isEmpty())
+			return;
+		System.out.println("threads mean variance speedup efficiency");
+		for (Map.Entry<Integer, List<Double>> e : samples.entrySet()) {
+			final int n = e.getKey();
+			System.out.println(n + " " + settings.format(mean(n)) + " " + settings.format(variance(n)) + " " + settings.format(speedup(n)) + " "
+					+ settings.format(efficiency(n)));
+		}
+		final double[] usl = uslCoefficients();
+		System.out.println("Amdahl serial fraction: " + settings.format(amdahlSerialFraction()));
+		System.out.println("USL sigma: " + settings.format(usl[0]) + " kappa: " + settings.format(usl[1]));
+		final int drop = efficiencyDropsBelow(settings.efficiencyThreshold);
+		System.out.println("Efficiency below " + settings.efficiencyThreshold + ": " + (drop == 0 ? "never" : drop + " threads"));
+	}
+
+}
@@ -0,0 +1,95 @@
+package stsc.performance;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-phase latency histograms of one search run of the package searchers.
+ * Usage: {@code final long start = profile.start(); ...;
+ * profile.record(Phase.SIMULATION, start);}. {@link #DISABLED} does not read
+ * the clock and records nothing. Queue wait (time from task submission to its
+ * start) is additionally kept per worker thread.
+ */
+final class SearchProfile {
+
+	enum Phase {
+		QUEUE_WAIT, SETTINGS_GENERATION, SIMULATION, METRICS, SELECTOR_INSERTION, GENETIC_SELECTION, CROSSOVER, MUTATION
+	}
+
+	static final SearchProfile DISABLED = new SearchProfile(false);
+
+	private final boolean enabled;
+	private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+	private final ConcurrentHashMap<String, LatencyHistogram> queueWaitByWorker = new ConcurrentHashMap<>();
+
+	SearchProfile() {
+		this(true);
+	}
+
+	private SearchProfile(boolean enabled) {
+		this.enabled = enabled;
+		for (int i = 0; i < phases.length; ++i) {
+			phases[i] = new LatencyHistogram();
+		}
+	}
+
+	boolean isEnabled() {
+		return enabled;
+	}
+
+	long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	void record(Phase phase, long start) {
+		if (enabled)
+			phases[phase.ordinal()].record(System.nanoTime() - start);
+	}
+
+	/**
+	 * @param submitted
+	 *            {@link #start()} at the task submission, called by the task
+	 *            itself when it starts
+	 */
+	void recordQueueWait(long submitted) {
+		if (!enabled)
+			return;
+		final long wait = System.nanoTime() - submitted;
+		phases[Phase.QUEUE_WAIT.ordinal()].record(wait);
+		queueWaitByWorker.computeIfAbsent(Thread.currentThread().getName(), k -> new LatencyHistogram()).record(wait);
+	}
+
+	LatencyHistogram get(Phase phase) {
+		return phases[phase.ordinal()];
+	}
+
+	/**
+	 * @return queue wait histograms by worker thread name
+	 */
+	Map<String, LatencyHistogram> getQueueWaitByWorker() {
+		return new TreeMap<>(queueWaitByWorker);
+	}
+
+	/**
+	 * @return phase, count, p50, p99, max (microseconds) and total seconds per
+	 *         recorded phase, then total queue wait per worker
+	 */
+	String print(PerformanceCalculatorSettings settings) {
+		final StringBuilder result = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			final LatencyHistogram histogram = get(phase);
+			final long count = histogram.count();
+			if (count == 0)
+				continue;
+			result.append(String.format("%-20s %10d %12s %12s %12s %14s%n", phase, count, settings.format(histogram.percentile(50) / 1e3),
+					settings.format(histogram.percentile(99) / 1e3), settings.format(histogram.max() / 1e3), settings.format(histogram.total() / 1e9)));
+		}
+		for (Map.Entry<String, LatencyHistogram> e : getQueueWaitByWorker().entrySet()) {
+			result.append(String.format("  %-18s %10d %12s %12s %12s %14s%n", e.getKey(), e.getValue().count(), settings.format(e.getValue().percentile(50) / 1e3),
+					settings.format(e.getValue().percentile(99) / 1e3), settings.format(e.getValue().max() / 1e3), settings.format(e.getValue().total() / 1e9)));
+		}
+		return result.toString();
+	}
+
+}
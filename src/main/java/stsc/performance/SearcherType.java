@@ -1,5 +1,9 @@
 package stsc.performance;
 
+/**
+ * DISTRIBUTED_GRID_SEARCHER only labels {@link DistributedGridSearcher} records,
+ * it is not a searcherType setting.
+ */
 enum SearcherType {
-	GRID_SEARCHER, GENETIC_SEARCHER
+	GRID_SEARCHER, GENETIC_SEARCHER, PARTITIONED_GRID_SEARCHER, INDEXED_GENETIC_SEARCHER, DISTRIBUTED_GRID_SEARCHER
 }
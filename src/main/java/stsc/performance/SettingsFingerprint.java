@@ -0,0 +1,91 @@
+package stsc.performance;
+
+import stsc.general.simulator.Execution;
+
+/**
+ * Stable 64-bit fingerprint of the settings of a grid point, an alternative to
+ * Execution.stringHashCode() for deduplication, caching and joins of results.
+ * Every parameter value is hashed together with its execution, algorithm and
+ * parameter names once per {@link GridSpace}, a fingerprint then takes one
+ * table read and one multiply per parameter and allocates nothing. Only
+ * characters and value bits are hashed (no String.hashCode or identity
+ * hashes), so fingerprints are the same in every JVM run, and the same
+ * settings get the same fingerprint in spaces with other parameter ranges.
+ * <p>
+ * Strategies that do not come with a grid index (library searchers) are
+ * fingerprinted by {@link #fingerprint(Execution)}; that value is not
+ * comparable with the fingerprints of grid points.
+ */
+final class SettingsFingerprint {
+
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+	private static final long MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+	private final GridSpace space;
+	private final long[][] values;
+
+	SettingsFingerprint(GridSpace space) {
+		this.space = space;
+		this.values = new long[space.dimensions()][];
+		int dimension = 0;
+		for (GridSpace.Algorithm algorithm : space.getAlgorithms()) {
+			final long algorithmHash = mix(hash(algorithm.executionName) ^ Long.rotateLeft(hash(algorithm.algorithmName), 21) ^ (algorithm.stock ? 1 : 2));
+			for (GridParameter parameter : algorithm.parameters) {
+				final long parameterHash = mix(algorithmHash + hash(parameter.name));
+				final long[] hashes = new long[parameter.size()];
+				for (int i = 0; i < hashes.length; ++i) {
+					hashes[i] = mix(parameterHash ^ parameter.fingerprint(i));
+				}
+				values[dimension++] = hashes;
+			}
+		}
+	}
+
+	long fingerprint(long index, int[] digits) {
+		space.decode(index, digits);
+		return fingerprintDecoded(digits);
+	}
+
+	/**
+	 * @param digits
+	 *            already decoded grid point (see {@link GridSpace#decode})
+	 */
+	long fingerprintDecoded(int[] digits) {
+		long result = SEED;
+		for (int d = 0; d < values.length; ++d) {
+			result = Long.rotateLeft(result, 23) * MULTIPLIER + values[d][digits[d]];
+		}
+		return mix(result);
+	}
+
+	/**
+	 * The library exposes the settings of an execution only as the
+	 * stringHashCode() text of its execution names, algorithm names and
+	 * parameter values, so the text is hashed; the result is the same in every
+	 * JVM run, unlike String.hashCode of the text.
+	 */
+	static long fingerprint(Execution execution) {
+		return hash(execution.stringHashCode());
+	}
+
+	/**
+	 * MurmurHash3 finalizer.
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+	/**
+	 * FNV-1a over the UTF-16 characters, mixed.
+	 */
+	static long hash(String value) {
+		long result = 0xCBF29CE484222325L;
+		for (int i = 0; i < value.length(); ++i) {
+			result = (result ^ value.charAt(i)) * 0x100000001B3L;
+		}
+		return mix(result);
+	}
+
+}
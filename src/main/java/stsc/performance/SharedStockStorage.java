@@ -0,0 +1,90 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import stsc.common.Day;
+import stsc.common.stocks.Stock;
+import stsc.common.stocks.StockImpl;
+import stsc.common.storage.StockStorage;
+
+/**
+ * Read-only stock storage shared by every simulation of a search. All stocks
+ * of the source storage are resolved and their days materialized once, when
+ * the storage is created; simulations then read immutable day lists without
+ * locks, without the lookups of the source storage and without the lazy day
+ * building of {@link ColumnarStockStorage}.
+ * <p>
+ * This is the part of the in -> ema -> level chain a search can share: the
+ * Ema and Level series are computed inside the stsc.general algorithms of
+ * every simulation, and the simulator has no injection point for
+ * precomputed indicator series.
+ */
+final class SharedStockStorage implements StockStorage {
+
+	private static final class SharedStock extends StockImpl {
+
+		private final String name;
+		private final String instrumentName;
+		private final ArrayList<Day> days;
+
+		SharedStock(Stock stock) {
+			this.name = stock.getName();
+			this.instrumentName = stock.getInstrumentName();
+			this.days = new ArrayList<>(stock.getDays());
+		}
+
+		@Override
+		public String getInstrumentName() {
+			return instrumentName;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public ArrayList<Day> getDays() {
+			return days;
+		}
+	}
+
+	private final Set<String> names;
+	private final Map<String, Optional<Stock>> stocks = new HashMap<>();
+
+	private SharedStockStorage(StockStorage source) {
+		for (String name : source.getStockNames()) {
+			final Optional<Stock> stock = source.getStock(name);
+			if (stock.isPresent())
+				stocks.put(name, Optional.<Stock> of(new SharedStock(stock.get())));
+		}
+		this.names = Collections.unmodifiableSet(new TreeSet<>(stocks.keySet()));
+	}
+
+	static SharedStockStorage of(StockStorage source) {
+		return new SharedStockStorage(source);
+	}
+
+	@Override
+	public Set<String> getStockNames() {
+		return names;
+	}
+
+	@Override
+	public Optional<Stock> getStock(String name) {
+		final Optional<Stock> stock = stocks.get(name);
+		return stock == null ? Optional.<Stock> empty() : stock;
+	}
+
+	@Override
+	public void updateStock(Stock stock) {
+		throw new UnsupportedOperationException("Shared stock storage is read-only");
+	}
+
+}
@@ -8,28 +8,34 @@ import java.util.List;
 import stsc.common.FromToPeriod;
 import stsc.common.algorithms.BadAlgorithmException;
 import stsc.common.storage.StockStorage;
-import stsc.general.simulator.multistarter.AlgorithmSettingsIteratorFactory;
 import stsc.general.simulator.multistarter.BadParameterException;
-import stsc.general.simulator.multistarter.MpDouble;
-import stsc.general.simulator.multistarter.MpInteger;
-import stsc.general.simulator.multistarter.MpString;
-import stsc.general.simulator.multistarter.MpSubExecution;
-import stsc.general.simulator.multistarter.SimulatorSettingsFactory;
 import stsc.general.simulator.multistarter.genetic.SimulatorSettingsGeneticFactory;
 import stsc.general.simulator.multistarter.grid.SimulatorSettingsGridFactory;
+import stsc.performance.GridParameter.DoubleParameter;
+import stsc.performance.GridParameter.IntegerParameter;
+import stsc.performance.GridParameter.StringParameter;
+import stsc.performance.GridParameter.SubExecutionParameter;
 import stsc.storage.AlgorithmsStorage;
 
 class SimulatorSettingsGenerator {
 
+	private static volatile AlgorithmIndex algorithmIndex;
+
+	/**
+	 * @param index
+	 *            resolves algorithm names of all later spaces, null for
+	 *            AlgorithmsStorage
+	 */
+	static void setAlgorithmIndex(AlgorithmIndex index) {
+		algorithmIndex = index;
+	}
+
 	static SimulatorSettingsGridFactory getGridFactory(boolean performanceForGridTest, final StockStorage stockStorage, final List<String> openTypes, final String periodFrom,
 			final String periodTo) {
 		try {
 			final FromToPeriod period = new FromToPeriod(periodFrom, periodTo);
 			final SimulatorSettingsGridFactory settings = new SimulatorSettingsGridFactory(stockStorage, period);
-			if (performanceForGridTest)
-				fillSmallIterator(settings, openTypes);
-			else
-				fillIterator(settings, openTypes);
+			getSpace(performanceForGridTest, openTypes).fill(settings);
 			return settings;
 		} catch (BadParameterException | BadAlgorithmException | ParseException e) {
 		}
@@ -41,78 +47,78 @@ class SimulatorSettingsGenerator {
 		try {
 			final FromToPeriod period = new FromToPeriod(periodFrom, periodTo);
 			final SimulatorSettingsGeneticFactory settings = new SimulatorSettingsGeneticFactory(stockStorage, period);
-			if (performanceForGridTest)
-				fillSmallIterator(settings, openTypes);
-			else
-				fillIterator(settings, openTypes);
+			getSpace(performanceForGridTest, openTypes).fill(settings);
 			return settings;
 		} catch (BadParameterException | BadAlgorithmException | ParseException e) {
 		}
 		return new SimulatorSettingsGeneticFactory(stockStorage, new FromToPeriod(new Date(), new Date()));
 	}
 
-	private static <T> void fillSmallIterator(SimulatorSettingsFactory<T> settings, final List<String> openTypes) throws BadParameterException, BadAlgorithmException {
-		final AlgorithmSettingsIteratorFactory factoryIn = new AlgorithmSettingsIteratorFactory();
-		factoryIn.add(new MpString("e", openTypes));
-		settings.addStock("in", algoStockName("In"), factoryIn);
-
-		final AlgorithmSettingsIteratorFactory factoryEma = new AlgorithmSettingsIteratorFactory();
-		factoryEma.add(new MpDouble("P", 0.1, 0.6, 0.6));
-		factoryEma.add(new MpSubExecution("", Arrays.asList(new String[] { "in" })));
-		settings.addStock("ema", algoStockName("Ema"), factoryEma);
-
-		final AlgorithmSettingsIteratorFactory factoryLevel = new AlgorithmSettingsIteratorFactory();
-		factoryLevel.add(new MpDouble("f", 15.0, 20.0, 5.0));
-		factoryLevel.add(new MpSubExecution("", Arrays.asList(new String[] { "ema" })));
-		settings.addStock("level", algoStockName("Level"), factoryLevel);
-
-		final AlgorithmSettingsIteratorFactory factoryOneSide = new AlgorithmSettingsIteratorFactory();
-		factoryOneSide.add(new MpString("side", Arrays.asList(new String[] { "long", "short" })));
-		settings.addEod("os", algoEodName("OneSideOpenAlgorithm"), factoryOneSide);
-
-		final AlgorithmSettingsIteratorFactory factoryPositionSide = new AlgorithmSettingsIteratorFactory();
-		factoryPositionSide.add(new MpSubExecution("", Arrays.asList(new String[] { "ema", "level" })));
-		factoryPositionSide.add(new MpSubExecution("", Arrays.asList(new String[] { "level", "ema" })));
-		factoryPositionSide.add(new MpInteger("n", 1, 32, 32));
-		factoryPositionSide.add(new MpInteger("m", 1, 32, 32));
-		factoryPositionSide.add(new MpDouble("ps", 50000.0, 200000.0, 150000.0));
-		settings.addEod("pnm", algoEodName("PositionNDayMStocks"), factoryPositionSide);
+	static IndexedGridList getIndexedGridList(boolean performanceForGridTest, final StockStorage stockStorage, final List<String> openTypes, final String periodFrom,
+			final String periodTo) {
+		try {
+			final FromToPeriod period = new FromToPeriod(periodFrom, periodTo);
+			return new IndexedGridList(getSpace(performanceForGridTest, openTypes), stockStorage, period);
+		} catch (BadAlgorithmException | ParseException e) {
+		}
+		return new IndexedGridList(new GridSpace(), stockStorage, new FromToPeriod(new Date(), new Date()));
 	}
 
-	private static <T> void fillIterator(SimulatorSettingsFactory<T> settings, final List<String> openTypes) throws BadParameterException, BadAlgorithmException {
-		final AlgorithmSettingsIteratorFactory factoryIn = new AlgorithmSettingsIteratorFactory();
-		factoryIn.add(new MpString("e", openTypes));
-		settings.addStock("in", algoStockName("In"), factoryIn);
-
-		final AlgorithmSettingsIteratorFactory factoryEma = new AlgorithmSettingsIteratorFactory();
-		factoryEma.add(new MpDouble("P", 0.1, 1.1, 0.05));
-		factoryEma.add(new MpSubExecution("", Arrays.asList(new String[] { "in" })));
-		settings.addStock("ema", algoStockName("Ema"), factoryEma);
-
-		final AlgorithmSettingsIteratorFactory factoryLevel = new AlgorithmSettingsIteratorFactory();
-		factoryLevel.add(new MpDouble("f", 15.0, 20.0, 0.01));
-		factoryLevel.add(new MpSubExecution("", Arrays.asList(new String[] { "ema" })));
-		settings.addStock("level", algoStockName("Level"), factoryLevel);
+	static GridSpace getSpace(boolean performanceForGridTest, final List<String> openTypes) throws BadAlgorithmException {
+		if (performanceForGridTest)
+			return smallSpace(openTypes);
+		else
+			return fullSpace(openTypes);
+	}
 
-		final AlgorithmSettingsIteratorFactory factoryOneSide = new AlgorithmSettingsIteratorFactory();
-		factoryOneSide.add(new MpString("side", Arrays.asList(new String[] { "long", "short" })));
-		settings.addEod("os", algoEodName("OneSideOpenAlgorithm"), factoryOneSide);
+	private static GridSpace smallSpace(final List<String> openTypes) throws BadAlgorithmException {
+		return new GridSpace(). //
+				addStock("in", algoStockName("In"), //
+						new StringParameter("e", openTypes)). //
+				addStock("ema", algoStockName("Ema"), //
+						new DoubleParameter("P", 0.1, 0.6, 0.6), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "in" }))). //
+				addStock("level", algoStockName("Level"), //
+						new DoubleParameter("f", 15.0, 20.0, 5.0), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "ema" }))). //
+				addEod("os", algoEodName("OneSideOpenAlgorithm"), //
+						new StringParameter("side", Arrays.asList(new String[] { "long", "short" }))). //
+				addEod("pnm", algoEodName("PositionNDayMStocks"), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "ema", "level" })), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "level", "ema" })), //
+						new IntegerParameter("n", 1, 32, 32), //
+						new IntegerParameter("m", 1, 32, 32), //
+						new DoubleParameter("ps", 50000.0, 200000.0, 150000.0));
+	}
 
-		final AlgorithmSettingsIteratorFactory factoryPositionSide = new AlgorithmSettingsIteratorFactory();
-		factoryPositionSide.add(new MpSubExecution("", Arrays.asList(new String[] { "ema", "level" })));
-		factoryPositionSide.add(new MpSubExecution("", Arrays.asList(new String[] { "level", "ema" })));
-		factoryPositionSide.add(new MpInteger("n", 1, 32, 1));
-		factoryPositionSide.add(new MpInteger("m", 1, 32, 1));
-		factoryPositionSide.add(new MpDouble("ps", 50000.0, 200000.0, 50.0));
-		settings.addEod("pnm", algoEodName("PositionNDayMStocks"), factoryPositionSide);
+	private static GridSpace fullSpace(final List<String> openTypes) throws BadAlgorithmException {
+		return new GridSpace(). //
+				addStock("in", algoStockName("In"), //
+						new StringParameter("e", openTypes)). //
+				addStock("ema", algoStockName("Ema"), //
+						new DoubleParameter("P", 0.1, 1.1, 0.05), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "in" }))). //
+				addStock("level", algoStockName("Level"), //
+						new DoubleParameter("f", 15.0, 20.0, 0.01), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "ema" }))). //
+				addEod("os", algoEodName("OneSideOpenAlgorithm"), //
+						new StringParameter("side", Arrays.asList(new String[] { "long", "short" }))). //
+				addEod("pnm", algoEodName("PositionNDayMStocks"), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "ema", "level" })), //
+						new SubExecutionParameter("", Arrays.asList(new String[] { "level", "ema" })), //
+						new IntegerParameter("n", 1, 32, 1), //
+						new IntegerParameter("m", 1, 32, 1), //
+						new DoubleParameter("ps", 50000.0, 200000.0, 50.0));
 	}
 
 	private static String algoStockName(String aname) throws BadAlgorithmException {
-		return AlgorithmsStorage.getInstance().getStock(aname).getName();
+		final AlgorithmIndex index = algorithmIndex;
+		return index == null ? AlgorithmsStorage.getInstance().getStock(aname).getName() : index.getStockName(aname);
 	}
 
 	private static String algoEodName(String aname) throws BadAlgorithmException {
-		return AlgorithmsStorage.getInstance().getEod(aname).getName();
+		final AlgorithmIndex index = algorithmIndex;
+		return index == null ? AlgorithmsStorage.getInstance().getEod(aname).getName() : index.getEodName(aname);
 	}
 
 }
@@ -0,0 +1,108 @@
+package stsc.performance;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.common.TimeTracker;
+import stsc.common.storage.StockStorage;
+import stsc.general.strategy.TradingStrategy;
+import stsc.storage.AlgorithmsStorage;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * Time to first simulation of a fresh JVM, one launch per mode:
+ * <ul>
+ * <li>"cold" - AlgorithmsStorage classpath discovery, StockStorageMock parsing
+ * and one simulated grid point;</li>
+ * <li>"snapshot" - {@link AlgorithmIndex} and {@link ColumnarStockStorage}
+ * of the snapshot directory (columnsDirectory), then the same grid point
+ * simulated over the mapped storage.</li>
+ * </ul>
+ * A missing snapshot, or one whose index was written for another stsc
+ * library, is generated first, the launch then has to be repeated.
+ */
+class StartupPerformanceCalculator {
+
+	private static Logger logger = LogManager.getLogger("StartupPerformance");
+
+	private static void cold(PerformanceCalculatorSettings settings) throws Exception {
+		final TimeTracker algorithms = new TimeTracker();
+		AlgorithmsStorage.getInstance();
+		final double algorithmsTime = TimeTracker.lengthInSeconds(algorithms.finish());
+
+		final TimeTracker stocks = new TimeTracker();
+		final StockStorage stockStorage = StockStorageMock.getStockStorage();
+		final double stocksTime = TimeTracker.lengthInSeconds(stocks.finish());
+
+		final TimeTracker simulation = new TimeTracker();
+		final TradingStrategy strategy = firstSimulation(settings, stockStorage);
+		final double simulationTime = TimeTracker.lengthInSeconds(simulation.finish());
+
+		print(settings, "cold", algorithmsTime, stocksTime, simulationTime, strategy.getAvGain());
+	}
+
+	private static void snapshot(PerformanceCalculatorSettings settings) throws Exception {
+		final Path directory = Paths.get(settings.columnsDirectory);
+		final Path indexFile = directory.resolve(AlgorithmIndex.FILE_NAME);
+
+		final TimeTracker algorithms = new TimeTracker();
+		final AlgorithmIndex index = AlgorithmIndex.load(indexFile);
+		if (!Files.isDirectory(directory) || index.isEmpty()) {
+			logger.debug("Generating stock snapshot and algorithm index in " + directory);
+			ColumnarStockStorage.convert(StockStorageMock.getStockStorage(), directory);
+			SimulatorSettingsGenerator.setAlgorithmIndex(index);
+			SimulatorSettingsGenerator.getSpace(true, settings.elements);
+			index.store(indexFile);
+			System.out.println("Snapshot generated, run again");
+			return;
+		}
+		SimulatorSettingsGenerator.setAlgorithmIndex(index);
+		SimulatorSettingsGenerator.getSpace(true, settings.elements);
+		final double algorithmsTime = TimeTracker.lengthInSeconds(algorithms.finish());
+
+		final TimeTracker stocks = new TimeTracker();
+		final ColumnarStockStorage stockStorage = ColumnarStockStorage.open(directory);
+		final double stocksTime = TimeTracker.lengthInSeconds(stocks.finish());
+
+		final TimeTracker simulation = new TimeTracker();
+		final TradingStrategy strategy = firstSimulation(settings, stockStorage);
+		final double simulationTime = TimeTracker.lengthInSeconds(simulation.finish());
+
+		print(settings, "snapshot", algorithmsTime, stocksTime, simulationTime, strategy.getAvGain());
+	}
+
+	/**
+	 * @return first point of the one year grid simulated over stockStorage
+	 */
+	private static TradingStrategy firstSimulation(PerformanceCalculatorSettings settings, StockStorage stockStorage) throws Exception {
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(true, stockStorage, settings.elements, settings.getStartOfPeriod(),
+				PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusYears(1)));
+		return ExecutionSimulator.simulate(list.materialize(0, list.newDigits()));
+	}
+
+	private static void print(PerformanceCalculatorSettings settings, String mode, double algorithmsTime, double stocksTime, double simulationTime,
+			double checksum) {
+		final double uptime = ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+		System.out.println(mode + " algorithms: " + settings.format(algorithmsTime) + " stocks: " + settings.format(stocksTime) + " first simulation: "
+				+ settings.format(simulationTime) + " since jvm start: " + settings.format(uptime) + " (" + settings.format(checksum) + ")");
+	}
+
+	public static void main(String[] args) {
+		try {
+			final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+			if (args.length > 1)
+				settings.columnsDirectory = args[1];
+			if (args.length > 0 && args[0].equals("snapshot"))
+				snapshot(settings);
+			else
+				cold(settings);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package stsc.performance;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Read-only columnar view of one stock: an int date column (local calendar
+ * date as days since 1970-01-01)
+ * and primitive double columns for open / high / low / close / value, all
+ * backed by one (usually memory-mapped) buffer written by
+ * {@link ColumnarStockStorage}.
+ */
+final class StockColumns {
+
+	static final int MAGIC = 0x53545343;
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 16;
+
+	static final int OPEN = 0;
+	static final int HIGH = 1;
+	static final int LOW = 2;
+	static final int CLOSE = 3;
+	static final int VALUE = 4;
+	static final int PRICE_COLUMNS = 5;
+
+	private final String name;
+	private final int days;
+	private final IntBuffer dates;
+	private final DoubleBuffer[] prices = new DoubleBuffer[PRICE_COLUMNS];
+
+	/**
+	 * Layout: magic, version, days, padding (4 ints), dates (days ints, padded
+	 * to 8 bytes), then days doubles for every price column.
+	 */
+	StockColumns(String name, ByteBuffer buffer) {
+		this.name = name;
+		final ByteBuffer b = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		if (b.getInt(0) != MAGIC || b.getInt(4) != VERSION)
+			throw new IllegalArgumentException("Not a stock columns file of version " + VERSION + ": " + name + ", convert the storage again");
+		this.days = b.getInt(8);
+		b.position(HEADER_SIZE);
+		this.dates = b.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		this.dates.limit(days);
+		final int pricesOffset = pricesOffset(days);
+		for (int c = 0; c < PRICE_COLUMNS; ++c) {
+			b.position(pricesOffset + c * days * 8);
+			prices[c] = b.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			prices[c].limit(days);
+		}
+	}
+
+	/**
+	 * @return price column of a grid input name ("open", "close", ...)
+	 */
+	static int column(String input) {
+		switch (input) {
+		case "open":
+			return OPEN;
+		case "high":
+			return HIGH;
+		case "low":
+			return LOW;
+		case "close":
+			return CLOSE;
+		case "value":
+			return VALUE;
+		default:
+			throw new IllegalArgumentException("Unknown input: " + input);
+		}
+	}
+
+	static int pricesOffset(int days) {
+		return HEADER_SIZE + ((days * 4 + 7) & ~7);
+	}
+
+	static int fileSize(int days) {
+		return pricesOffset(days) + PRICE_COLUMNS * days * 8;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	int days() {
+		return days;
+	}
+
+	int date(int day) {
+		return dates.get(day);
+	}
+
+	double price(int column, int day) {
+		return prices[column].get(day);
+	}
+
+	double open(int day) {
+		return prices[OPEN].get(day);
+	}
+
+	double high(int day) {
+		return prices[HIGH].get(day);
+	}
+
+	double low(int day) {
+		return prices[LOW].get(day);
+	}
+
+	double close(int day) {
+		return prices[CLOSE].get(day);
+	}
+
+	double value(int day) {
+		return prices[VALUE].get(day);
+	}
+
+}
@@ -0,0 +1,132 @@
+package stsc.performance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import stsc.common.Day;
+import stsc.common.TimeTracker;
+import stsc.common.stocks.Stock;
+import stsc.common.storage.StockStorage;
+import stsc.storage.AlgorithmsStorage;
+import stsc.storage.mocks.StockStorageMock;
+
+/**
+ * Heap (StockStorageMock) vs memory-mapped {@link ColumnarStockStorage}: load
+ * time, throughput of a pass over all close prices (an Ema over every stock,
+ * through Day objects on the heap and through the columns when mapped), grid
+ * simulations per second of the same search over each storage and the
+ * resident set size after both. Run once per storage type ("heap" or "mmap"
+ * argument), so RSS is not mixed. With a third "shared" argument the search
+ * reads a {@link SharedStockStorage} built from the storage.
+ */
+class StoragePerformanceCalculator {
+
+	private static Logger logger = LogManager.getLogger("StoragePerformance");
+
+	private static final int SCAN_REPEATS = 10;
+
+	private static void heap(PerformanceCalculatorSettings settings) throws Exception {
+		final TimeTracker load = new TimeTracker();
+		final StockStorage stockStorage = StockStorageMock.getStockStorage();
+		final double loadTime = TimeTracker.lengthInSeconds(load.finish());
+
+		long days = 0;
+		double checksum = 0.0;
+		final TimeTracker scan = new TimeTracker();
+		for (int r = 0; r < SCAN_REPEATS; ++r) {
+			for (String name : stockStorage.getStockNames()) {
+				final Optional<Stock> stock = stockStorage.getStock(name);
+				if (!stock.isPresent())
+					continue;
+				double ema = 0.0;
+				for (Day day : stock.get().getDays()) {
+					ema += 0.3 * (day.getPrices().getClose() - ema);
+				}
+				days += stock.get().getDays().size();
+				checksum += ema;
+			}
+		}
+		final double scanTime = TimeTracker.lengthInSeconds(scan.finish());
+		final double simulationsPerSecond = search(settings, stockStorage);
+		print(settings, "heap", loadTime, AllocationProbe.residentSetSize(), days / scanTime, checksum, simulationsPerSecond);
+	}
+
+	private static void mmap(PerformanceCalculatorSettings settings) throws Exception {
+		final Path directory = Paths.get(settings.columnsDirectory);
+		if (!Files.isDirectory(directory)) {
+			logger.debug("Converting stock storage to " + directory);
+			ColumnarStockStorage.convert(StockStorageMock.getStockStorage(), directory);
+			logger.debug("Converted, rerun to measure mmap storage without heap storage loaded");
+			return;
+		}
+		final TimeTracker load = new TimeTracker();
+		final ColumnarStockStorage stockStorage = ColumnarStockStorage.open(directory);
+		final double loadTime = TimeTracker.lengthInSeconds(load.finish());
+
+		long days = 0;
+		double checksum = 0.0;
+		final TimeTracker scan = new TimeTracker();
+		for (int r = 0; r < SCAN_REPEATS; ++r) {
+			for (String name : stockStorage.getStockNames()) {
+				final StockColumns stock = stockStorage.getColumns(name);
+				double ema = 0.0;
+				for (int i = 0; i < stock.days(); ++i) {
+					ema += 0.3 * (stock.close(i) - ema);
+				}
+				days += stock.days();
+				checksum += ema;
+			}
+		}
+		final double scanTime = TimeTracker.lengthInSeconds(scan.finish());
+		final double simulationsPerSecond = search(settings, stockStorage);
+		print(settings, "mmap", loadTime, AllocationProbe.residentSetSize(), days / scanTime, checksum, simulationsPerSecond);
+	}
+
+	/**
+	 * @return simulations per second of a partitioned grid search over three
+	 *         years on stockStorage
+	 */
+	private static double search(PerformanceCalculatorSettings settings, StockStorage stockStorage) throws Exception {
+		settings.performanceForGridTest = true;
+		settings.printStarterInfo = false;
+		settings.searcherType = SearcherType.PARTITIONED_GRID_SEARCHER;
+		final String endOfPeriod = PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusYears(3));
+		final long simulations = SimulatorSettingsGenerator.getIndexedGridList(true, stockStorage, settings.elements, settings.getStartOfPeriod(), endOfPeriod)
+				.size();
+		final PerformanceResult result = new PerformanceCalculator(settings, stockStorage).timeForSearch(settings.threadsTo, endOfPeriod);
+		return simulations / TimeTracker.lengthInSeconds(result.timeTracker.length());
+	}
+
+	private static void print(PerformanceCalculatorSettings settings, String storage, double loadTime, long rss, double daysPerSecond, double checksum,
+			double simulationsPerSecond) {
+		System.out.println(storage + " load: " + settings.format(loadTime) + " rss: " + rss + " days/s: " + settings.format(daysPerSecond) + " ("
+				+ settings.format(checksum) + ") simulations/s: " + settings.format(simulationsPerSecond));
+	}
+
+	public static void main(String[] args) {
+		logger.debug("Process started");
+		try {
+			final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+			if (args.length > 0)
+				settings.storageType = StorageType.valueOf(args[0].toUpperCase());
+			if (args.length > 1)
+				settings.columnsDirectory = args[1];
+			if (args.length > 2)
+				settings.sharedStocks = args[2].equals("shared");
+			AlgorithmsStorage.getInstance();
+			if (settings.storageType == StorageType.MMAP) {
+				mmap(settings);
+			} else {
+				heap(settings);
+			}
+			logger.debug("Performance Calculator finished");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
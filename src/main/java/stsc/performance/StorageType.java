@@ -0,0 +1,5 @@
+package stsc.performance;
+
+enum StorageType {
+	HEAP, MMAP
+}
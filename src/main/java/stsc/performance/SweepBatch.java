@@ -0,0 +1,137 @@
+package stsc.performance;
+
+import java.util.Arrays;
+
+import stsc.performance.GridParameter.DoubleParameter;
+
+/**
+ * Days-above-level kernel of the in -> ema -> level stock chain, evaluated for
+ * every (Ema P, Level f) variant of a grid in one pass over the days of a
+ * stock. It is not a simulation: there are no trades and no metrics, and
+ * Level is taken as "Ema above f", the library algorithm may differ. State is
+ * kept struct-of-arrays (one Ema value per P, one counter per variant), so
+ * per day the price is read once and the inner loops are plain array loops
+ * the JIT can unroll and vectorize. The result of a variant is the amount of
+ * days its Ema was above its level, summed over all evaluated stocks.
+ */
+final class SweepBatch {
+
+	private final double[] p;
+	private final double[] f;
+
+	private final double[] ema;
+	private final int[] daysAbove;
+
+	SweepBatch(double[] p, double[] f) {
+		this.p = p.clone();
+		this.f = f.clone();
+		this.ema = new double[p.length];
+		this.daysAbove = new int[p.length * f.length];
+	}
+
+	/**
+	 * @param space
+	 *            should contain "ema" execution with "P" parameter and "level"
+	 *            execution with "f" parameter (like
+	 *            {@link SimulatorSettingsGenerator} spaces)
+	 */
+	static SweepBatch of(GridSpace space) {
+		final int emaDimension = space.dimension("ema", "P");
+		final int levelDimension = space.dimension("level", "f");
+		if (emaDimension < 0 || levelDimension < 0)
+			throw new IllegalArgumentException("Space has no ema.P / level.f parameters");
+		return new SweepBatch(values((DoubleParameter) space.getParameter(emaDimension)), values((DoubleParameter) space.getParameter(levelDimension)));
+	}
+
+	private static double[] values(DoubleParameter parameter) {
+		final double[] result = new double[parameter.size()];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = parameter.value(i);
+		}
+		return result;
+	}
+
+	int variants() {
+		return daysAbove.length;
+	}
+
+	double p(int emaIndex) {
+		return p[emaIndex];
+	}
+
+	double f(int levelIndex) {
+		return f[levelIndex];
+	}
+
+	int sizeP() {
+		return p.length;
+	}
+
+	int sizeF() {
+		return f.length;
+	}
+
+	void reset() {
+		Arrays.fill(daysAbove, 0);
+	}
+
+	/**
+	 * Adds one stock (one input column of it) to every variant.
+	 */
+	void evaluate(StockColumns stock, int column) {
+		final int days = stock.days();
+		if (days == 0)
+			return;
+		Arrays.fill(ema, stock.price(column, 0));
+		final int levels = f.length;
+		for (int day = 0; day < days; ++day) {
+			final double price = stock.price(column, day);
+			for (int v = 0; v < ema.length; ++v) {
+				ema[v] += p[v] * (price - ema[v]);
+			}
+			for (int v = 0; v < ema.length; ++v) {
+				final double value = ema[v];
+				final int offset = v * levels;
+				for (int l = 0; l < levels; ++l) {
+					daysAbove[offset + l] += value > f[l] ? 1 : 0;
+				}
+			}
+		}
+	}
+
+	int getDaysAbove(int emaIndex, int levelIndex) {
+		return daysAbove[emaIndex * f.length + levelIndex];
+	}
+
+	long sum() {
+		long result = 0;
+		for (int v : daysAbove) {
+			result += v;
+		}
+		return result;
+	}
+
+	/**
+	 * One level over an already computed Ema series, a pass over the days per
+	 * variant.
+	 */
+	static int daysAbove(double[] ema, double f) {
+		int result = 0;
+		for (double value : ema) {
+			if (value > f)
+				++result;
+		}
+		return result;
+	}
+
+	static double[] ema(StockColumns stock, int column, double p) {
+		final double[] result = new double[stock.days()];
+		double value = stock.days() > 0 ? stock.price(column, 0) : 0.0;
+		for (int i = 0; i < result.length; ++i) {
+			value += p * (stock.price(column, i) - value);
+			result[i] = value;
+		}
+		return result;
+	}
+
+}
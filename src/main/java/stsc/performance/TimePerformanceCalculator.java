@@ -35,9 +35,34 @@ class TimePerformanceCalculator {
 			System.out.println("Grid Search");
 			settings.searcherType = SearcherType.GRID_SEARCHER;
 			new PerformanceCalculator(settings).calculateTimeStatistics();
+			System.out.println("Partitioned Grid Search");
+			settings.searcherType = SearcherType.PARTITIONED_GRID_SEARCHER;
+			settings.printEnumerationThroughput = true;
+			new PerformanceCalculator(settings).calculateTimeStatistics();
+			settings.printEnumerationThroughput = false;
+			System.out.println("Early Abort Grid Search");
+			settings.earlyAbort = true;
+			new PerformanceCalculator(settings).calculateTimeStatistics();
+			settings.earlyAbort = false;
+			System.out.println("Early Abort Difference (days, exhaustive time, early abort time, counters, top-K agreement)");
+			new PerformanceCalculator(settings).calculateEarlyAbort(settings.startOfPeriod.plusYears(1), settings.threadsTo);
 			System.out.println("Genetic Search");
 			settings.searcherType = SearcherType.GENETIC_SEARCHER;
 			new PerformanceCalculator(settings).calculateTimeStatistics();
+			System.out.println("Search Phases (count, p50 us, p99 us, max us, total s)");
+			settings.printPhases = true;
+			settings.searcherType = SearcherType.PARTITIONED_GRID_SEARCHER;
+			new PerformanceCalculator(settings).calculateSmallStatistics();
+			settings.searcherType = SearcherType.INDEXED_GENETIC_SEARCHER;
+			new PerformanceCalculator(settings).calculateSmallStatistics();
+			settings.printPhases = false;
+			System.out.println("Screening (searcher, days, exhaustive time, screened time, screened, promoted, avoided, agreement / avGain)");
+			settings.searcherType = SearcherType.PARTITIONED_GRID_SEARCHER;
+			new PerformanceCalculator(settings).calculateScreening(settings.startOfPeriod.plusYears(1), settings.threadsTo);
+			System.out.println("Result Store (rows, search time, then scan time, rows/s, best index per weighting)");
+			new PerformanceCalculator(settings).calculateResultStore(settings.startOfPeriod.plusYears(1), settings.threadsTo);
+			System.out.println("Batch Sweep (variants, variant evaluations/s simulated, one at a time, batched, batch speedup over simulated, over one at a time)");
+			new PerformanceCalculator(settings).calculateBatchSweep();
 			logger.debug("Performance Calculator finished");
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -0,0 +1,70 @@
+package stsc.performance;
+
+import stsc.general.statistic.MetricType;
+import stsc.general.statistic.Metrics;
+import stsc.general.statistic.cost.function.CostFunction;
+
+/**
+ * Weighted sum of metrics like CostWeightedSumFunction, but evaluated as a dot
+ * product of a weight array and a {@link MetricVector}: no boxing, no map
+ * lookups and no allocation per {@link #cost(double[])} call. Implements
+ * CostFunction for the places that only have Metrics (that path reads only
+ * the metrics with a non-zero weight). {@link #defaultWeights()} is the
+ * default cost of the searchers and selectors of this package.
+ */
+final class WeightedMetricCost implements CostFunction {
+
+	private static final MetricType[] TYPES = MetricType.values();
+
+	private final double[] weights = new double[MetricVector.SIZE];
+
+	/**
+	 * @return avGain with weight 1.0, the weights of a default
+	 *         CostWeightedSumFunction
+	 */
+	static WeightedMetricCost defaultWeights() {
+		return new WeightedMetricCost().withParameter(MetricType.avGain, 1.0);
+	}
+
+	WeightedMetricCost withParameter(MetricType type, double weight) {
+		weights[type.ordinal()] = weight;
+		return this;
+	}
+
+	/**
+	 * @param metric
+	 *            {@link MetricType#ordinal()}
+	 */
+	double weight(int metric) {
+		return weights[metric];
+	}
+
+	double cost(double[] metrics) {
+		double result = 0.0;
+		for (int i = 0; i < weights.length; ++i) {
+			result += weights[i] * metrics[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Missing metrics count as 0.0, like in {@link MetricVector}.
+	 */
+	double cost(Metrics metrics) {
+		double result = 0.0;
+		for (int i = 0; i < weights.length; ++i) {
+			if (weights[i] != 0.0) {
+				final Double value = metrics.getMetric(TYPES[i]);
+				if (value != null)
+					result += weights[i] * value;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Double calculate(Metrics metrics) {
+		return cost(metrics);
+	}
+
+}
@@ -0,0 +1,64 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import stsc.common.storage.StockStorage;
+import stsc.general.statistic.MetricType;
+import stsc.general.statistic.cost.comparator.MetricsSameComparator;
+import stsc.general.strategy.TradingStrategy;
+import stsc.general.strategy.selector.StatisticsByCostSelector;
+import stsc.general.strategy.selector.StrategySelector;
+import stsc.storage.mocks.StockStorageMock;
+
+public class DistributedGridSearcherTest {
+
+	private static final int STORED_STRATEGY_AMOUNT = 10;
+
+	private static final WeightedMetricCost COST = new WeightedMetricCost().withParameter(MetricType.avGain, 1.0).withParameter(MetricType.maxLoss, -0.5);
+
+	private static StrategySelector createSelector() {
+		return new StatisticsByCostSelector(STORED_STRATEGY_AMOUNT, COST, new MetricsSameComparator());
+	}
+
+	private static List<Double> avGains(StrategySelector selector) {
+		final List<Double> result = new ArrayList<>();
+		for (TradingStrategy strategy : selector.getStrategies()) {
+			result.add(strategy.getAvGain());
+		}
+		return result;
+	}
+
+	@Test
+	public void testKilledWorker() throws Exception {
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		final StockStorage stockStorage = StockStorageMock.getStockStorage();
+		final String periodFrom = settings.getStartOfPeriod();
+		final String periodTo = PerformanceCalculatorSettings.getDateRepresentation(settings.startOfPeriod.plusMonths(6));
+		final IndexedGridList list = SimulatorSettingsGenerator.getIndexedGridList(true, stockStorage, settings.elements, periodFrom, periodTo);
+
+		final DistributedGridSearcher distributed = DistributedGridSearcher.getBuilder(). //
+				setGrid(true, stockStorage, settings.elements, periodFrom, periodTo). //
+				setSelector(createSelector()). //
+				setCostFunction(COST). //
+				setStoredStrategyAmount(STORED_STRATEGY_AMOUNT). //
+				setWorkerAmount(2). //
+				setLeaseSize(Math.max(1, list.size() / 64)). //
+				setLeaseTimeout(60 * 1000).build();
+		while (distributed.getCompleted() == 0) {
+			Thread.sleep(10);
+		}
+		final Process killed = distributed.getWorker(0);
+		killed.destroyForcibly().waitFor();
+		final StrategySelector distributedSelector = distributed.waitAndGetSelector();
+		Assert.assertFalse(killed.isAlive());
+
+		final StrategySelector partitionedSelector = PartitionedGridSearcher.getBuilder().setIndexedGridList(list).setSelector(createSelector())
+				.setThreadAmount(2).build().waitAndGetSelector();
+		Assert.assertEquals(avGains(partitionedSelector), avGains(distributedSelector));
+	}
+
+}
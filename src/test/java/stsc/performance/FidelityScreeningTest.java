@@ -0,0 +1,28 @@
+package stsc.performance;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FidelityScreeningTest {
+
+	@Test
+	public void testPromotions() {
+		final FidelityScreening screening = new FidelityScreening(0.25, 0.25, 0.1);
+		Assert.assertEquals(1, screening.promotions(0));
+		Assert.assertEquals(1, screening.promotions(5));
+		Assert.assertEquals(10, screening.promotions(100));
+		Assert.assertEquals(11, screening.promotions(101));
+		Assert.assertEquals(FidelityScreening.MAX_PROMOTIONS, screening.promotions(Long.MAX_VALUE));
+		screening.count(100, 10);
+		Assert.assertEquals(90, screening.getAvoided());
+	}
+
+	@Test
+	public void testAgreement() {
+		Assert.assertEquals(1.0, FidelityScreening.agreement(Arrays.asList(new Long[] {}), Arrays.asList(new Long[] { 1L })), 0.0);
+		Assert.assertEquals(0.5, FidelityScreening.agreement(Arrays.asList(new Long[] { 1L, 2L, 3L, 4L }), Arrays.asList(new Long[] { 4L, 1L, 7L })), 0.0);
+	}
+
+}
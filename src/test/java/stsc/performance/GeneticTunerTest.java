@@ -0,0 +1,28 @@
+package stsc.performance;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GeneticTunerTest {
+
+	private static GeneticTuner.Configuration configuration(double seconds, double avGain) {
+		final GeneticTuner.Configuration result = new GeneticTuner.Configuration(50, 50, 0.9, 0.8);
+		result.add(seconds, avGain);
+		return result;
+	}
+
+	@Test
+	public void testParetoFrontAndRank() {
+		final GeneticTuner.Configuration fast = configuration(1.0, 0.1);
+		final GeneticTuner.Configuration good = configuration(3.0, 0.5);
+		final GeneticTuner.Configuration dominated = configuration(3.5, 0.4);
+		final GeneticTuner.Configuration balanced = configuration(2.0, 0.3);
+		final List<GeneticTuner.Configuration> all = Arrays.asList(dominated, good, fast, balanced);
+		Assert.assertEquals(Arrays.asList(fast, balanced, good), GeneticTuner.paretoFront(all));
+		Assert.assertEquals(Arrays.asList(good, balanced, fast, dominated), GeneticTuner.rank(all));
+	}
+
+}
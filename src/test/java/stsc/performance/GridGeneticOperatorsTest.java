@@ -0,0 +1,48 @@
+package stsc.performance;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import stsc.performance.GridParameter.DoubleParameter;
+import stsc.performance.GridParameter.IntegerParameter;
+import stsc.performance.GridParameter.StringParameter;
+
+public class GridGeneticOperatorsTest {
+
+	private static GridSpace space() {
+		return new GridSpace(). //
+				addStock("in", "In", new StringParameter("e", Arrays.asList(new String[] { "open", "close" }))). //
+				addEod("pnm", "PositionNDayMStocks", new IntegerParameter("n", 1, 32, 1), new DoubleParameter("ps", 50000.0, 200000.0, 50.0));
+	}
+
+	private static long[] population(GridGeneticOperators operators, ExecutorService executor) throws Exception {
+		final long[] random = new long[1000];
+		GridGeneticOperators.fill(random, new SplittableRandom(7), executor, (i, r) -> operators.generateRandom(r));
+		final long[] next = new long[random.length];
+		GridGeneticOperators.fill(next, new SplittableRandom(8), executor,
+				(i, r) -> i % 2 == 0 ? operators.merge(random[i], random[random.length - 1 - i], r) : operators.mutate(random[i], r));
+		return next;
+	}
+
+	@Test
+	public void testParallelFillIsReproducible() throws Exception {
+		final GridSpace space = space();
+		final GridGeneticOperators operators = new GridGeneticOperators(space);
+		final long[] sequential = population(operators, null);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Assert.assertArrayEquals(sequential, population(operators, executor));
+		} finally {
+			executor.shutdown();
+		}
+		for (long index : sequential) {
+			Assert.assertTrue(index >= 0 && index < space.size());
+		}
+	}
+
+}
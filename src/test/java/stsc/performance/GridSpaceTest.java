@@ -0,0 +1,38 @@
+package stsc.performance;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import stsc.performance.GridParameter.DoubleParameter;
+import stsc.performance.GridParameter.IntegerParameter;
+import stsc.performance.GridParameter.StringParameter;
+
+public class GridSpaceTest {
+
+	private static GridSpace space() {
+		return new GridSpace(). //
+				addStock("in", "In", new StringParameter("e", Arrays.asList(new String[] { "open", "close" }))). //
+				addEod("pnm", "PositionNDayMStocks", new IntegerParameter("n", 1, 32, 1), new DoubleParameter("ps", 50000.0, 200000.0, 50.0));
+	}
+
+	@Test
+	public void testSize() {
+		Assert.assertEquals(2 * 31 * 3000, space().size());
+		Assert.assertEquals(0, new GridSpace().size());
+	}
+
+	@Test
+	public void testDecodeEncode() {
+		final GridSpace space = space();
+		final int[] digits = new int[space.dimensions()];
+		for (long i = 0; i < space.size(); i += 997) {
+			space.decode(i, digits);
+			Assert.assertEquals(i, space.encode(digits));
+		}
+		space.decode(space.size() - 1, digits);
+		Assert.assertArrayEquals(new int[] { 1, 30, 2999 }, digits);
+	}
+
+}
@@ -0,0 +1,37 @@
+package stsc.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexTopKTest {
+
+	@Test
+	public void testBoundedBestFirst() {
+		final IndexTopK topK = new IndexTopK(3);
+		for (long i = 0; i < 10; ++i) {
+			topK.add(i, (i * 7) % 10);
+		}
+		Assert.assertEquals(3, topK.size());
+		Assert.assertEquals(Arrays.asList(7L, 4L, 1L), topK.indexes());
+	}
+
+	@Test
+	public void testWriteRead() throws IOException {
+		final IndexTopK topK = new IndexTopK(4);
+		topK.add(11, 0.5);
+		topK.add(12, 1.5);
+		topK.add(13, -2.0);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		topK.writeTo(new DataOutputStream(bytes));
+		final IndexTopK read = IndexTopK.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 2);
+		Assert.assertEquals(Arrays.asList(12L, 11L), read.indexes());
+	}
+
+}
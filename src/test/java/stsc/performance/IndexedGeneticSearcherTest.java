@@ -0,0 +1,80 @@
+package stsc.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import stsc.performance.GridParameter.DoubleParameter;
+import stsc.performance.GridParameter.IntegerParameter;
+import stsc.performance.GridParameter.StringParameter;
+import stsc.performance.IndexedGeneticSearcher.PlateauCost;
+import stsc.performance.IndexedGeneticSearcher.StopReason;
+
+public class IndexedGeneticSearcherTest {
+
+	private static IndexedGridList list() {
+		return new IndexedGridList(new GridSpace(). //
+				addStock("in", "In", new StringParameter("e", Arrays.asList(new String[] { "open", "close" }))). //
+				addEod("pnm", "PositionNDayMStocks", new IntegerParameter("n", 1, 32, 1), new DoubleParameter("ps", 50000.0, 200000.0, 50.0)), null, null);
+	}
+
+	private static IndexedGeneticSearcher.Builder builder(IndexedGeneticSearcher.Evaluator evaluator) {
+		return IndexedGeneticSearcher.getBuilder().withIndexedGridList(list()).withPopulationSize(20).withThreadAmount(4).withSeed(11)
+				.withEvaluator(evaluator);
+	}
+
+	private static IndexedGeneticSearcher.Evaluator constant(double cost) {
+		return index -> new FitnessCache.Fitness(new double[MetricVector.SIZE], cost);
+	}
+
+	/**
+	 * The first evaluation costs 1000, every later one its evaluation number:
+	 * the best cost stays, the mean grows every generation.
+	 */
+	private static IndexedGeneticSearcher.Evaluator growingMean() {
+		final AtomicInteger evaluations = new AtomicInteger();
+		return index -> {
+			final int evaluation = evaluations.getAndIncrement();
+			return new FitnessCache.Fitness(new double[MetricVector.SIZE], evaluation == 0 ? 1000.0 : evaluation);
+		};
+	}
+
+	private static void assertStop(IndexedGeneticSearcher searcher, StopReason stopReason, int generations) throws Exception {
+		searcher.waitAndGetSelector();
+		Assert.assertEquals(stopReason, searcher.getStopReason());
+		Assert.assertEquals(generations, searcher.getGenerations());
+	}
+
+	@Test
+	public void testStopReasons() throws Exception {
+		assertStop(builder(constant(1.0)).withMaxPopulationsAmount(7).build(), StopReason.MAX_POPULATIONS, 7);
+		assertStop(builder(constant(5.0)).withTargetCost(5.0).build(), StopReason.TARGET_COST, 1);
+		assertStop(builder(constant(1.0)).withDeadline(0).build(), StopReason.DEADLINE, 1);
+		assertStop(builder(growingMean()).withPlateau(PlateauCost.BEST, 5, 0.0).build(), StopReason.PLATEAU, 6);
+		assertStop(builder(growingMean()).withPlateau(PlateauCost.MEAN, 5, 0.0).withMaxPopulationsAmount(10).build(), StopReason.MAX_POPULATIONS, 10);
+		assertStop(builder(constant(1.0)).withPlateau(PlateauCost.MEAN, 3, 0.0).build(), StopReason.PLATEAU, 4);
+	}
+
+	private static List<Long> lastPopulation(IndexedGeneticSearcher searcher) throws Exception {
+		searcher.waitAndGetSelector();
+		final List<Long> result = new ArrayList<>();
+		for (PopulationSnapshot.Individual individual : searcher.getSnapshot().getPopulation()) {
+			result.add(individual.index);
+		}
+		return result;
+	}
+
+	@Test
+	public void testSameSeedSamePopulations() throws Exception {
+		final IndexedGeneticSearcher.Evaluator evaluator = index -> new FitnessCache.Fitness(new double[MetricVector.SIZE], (index * 31) % 997);
+		final List<Long> first = lastPopulation(builder(evaluator).withMaxPopulationsAmount(8).build());
+		final List<Long> second = lastPopulation(builder(evaluator).withMaxPopulationsAmount(8).withParallelPopulation(true).build());
+		Assert.assertEquals(20, first.size());
+		Assert.assertEquals(first, second);
+	}
+
+}
@@ -0,0 +1,31 @@
+package stsc.performance;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucketBounds() {
+		final long[] values = { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE };
+		for (long value : values) {
+			final long highest = LatencyHistogram.highestValue(LatencyHistogram.bucket(value));
+			Assert.assertTrue(value + " > " + highest, highest >= value);
+			Assert.assertTrue(value + " << " + highest, highest - value <= value / 16);
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 1000; ++i) {
+			histogram.record(i * 1000);
+		}
+		Assert.assertEquals(1000, histogram.count());
+		Assert.assertEquals(500000, histogram.percentile(50), 500000 / 16);
+		Assert.assertEquals(990000, histogram.percentile(99), 990000 / 16);
+		Assert.assertEquals(1000000, histogram.percentile(100));
+		Assert.assertEquals(1000000, histogram.max());
+	}
+
+}
@@ -1,12 +1,90 @@
 package stsc.performance;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+/**
+ * Quick regression gate: partitioned grid search over the small space, records
+ * go to target/performance-results.json. Throughput should not be lower than
+ * the one in the checked-in stsc.baseline file by more than stsc.tolerance
+ * (default 0.3). Runs only with the performance-gate profile (mvn -P
+ * performance-gate test), which sets both, so plain mvn test does not depend
+ * on the machine. The gate fails when the baseline file or its record is
+ * missing; -Dstsc.baseline.update=true replaces the baseline with the results
+ * of the run instead of comparing them.
+ */
 public class PerformanceTest {
 
 	@Test
-	public void testPerformance() {
-		Assert.assertTrue(true);
+	public void testPerformance() throws Exception {
+		final String baseline = System.getProperty("stsc.baseline");
+		Assume.assumeTrue("stsc.baseline is not set, run with -P performance-gate", baseline != null);
+		final Path baselineFile = Paths.get(baseline);
+		final boolean update = Boolean.getBoolean("stsc.baseline.update");
+		if (!update)
+			Assert.assertTrue("Baseline " + baselineFile.toAbsolutePath() + " is missing, create it with -Dstsc.baseline.update=true",
+					Files.isRegularFile(baselineFile));
+		final Path results = Paths.get("target", "performance-results.json");
+		Files.createDirectories(results.getParent());
+		Files.deleteIfExists(results);
+
+		final PerformanceCalculatorSettings settings = new PerformanceCalculatorSettings();
+		settings.performanceForGridTest = true;
+		settings.searcherType = SearcherType.PARTITIONED_GRID_SEARCHER;
+		settings.printStarterInfo = false;
+		settings.threadsFrom = 2;
+		settings.threadsTo = 2;
+		settings.calculationsForAverage = 3;
+		settings.scenario = "regression gate";
+		settings.resultFile = results.toString();
+		new PerformanceCalculator(settings).calculateSmallStatistics();
+
+		final List<BenchmarkRecord> current = ResultSink.read(results);
+		Assert.assertEquals(1, current.size());
+		Assert.assertTrue(current.get(0).getSeconds() > 0.0);
+		Assert.assertFalse(Double.isNaN(current.get(0).getAvGain()));
+
+		if (update) {
+			Files.copy(results, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+			return;
+		}
+		final List<BenchmarkRecord> expected = ResultSink.read(baselineFile);
+		final double tolerance = Double.parseDouble(System.getProperty("stsc.tolerance", "0.3"));
+		final BaselineComparator comparator = new BaselineComparator(tolerance);
+		final List<String> unmatched = comparator.unmatched(expected, current);
+		Assert.assertTrue("No baseline record for " + unmatched + " in " + baselineFile, unmatched.isEmpty());
+		final List<String> regressions = comparator.regressions(expected, current);
+		Assert.assertTrue(regressions.toString(), regressions.isEmpty());
+	}
+
+	@Test
+	public void testBaselineComparator() {
+		final List<BenchmarkRecord> baseline = Arrays.asList( //
+				new BenchmarkRecord("gate").withThreads(2).withSeconds(1.0), //
+				new BenchmarkRecord("gate").withThreads(4).withSeconds(1.0), //
+				new BenchmarkRecord("other").withPoints(100).withSeconds(1.0));
+		final List<BenchmarkRecord> current = Arrays.asList( //
+				BenchmarkRecord.fromJson(new BenchmarkRecord("gate").withThreads(2).withSeconds(1.25).toJson()), //
+				BenchmarkRecord.fromCsv(new BenchmarkRecord("gate").withThreads(4).withSeconds(1.1).toCsv()), //
+				new BenchmarkRecord("new").withSeconds(100.0));
+		final List<String> regressions = new BaselineComparator(0.15).regressions(baseline, current);
+		Assert.assertEquals(1, regressions.size());
+		Assert.assertTrue(regressions.get(0).startsWith("gate||2|"));
+	}
+
+	@Test
+	public void testJsonTypes() {
+		final String json = new BenchmarkRecord("1.5").withSearcherType("2").withThreads(4).toJson();
+		Assert.assertTrue(json, json.startsWith("{\"scenario\":\"1.5\",\"searcherType\":\"2\",\"threads\":4,"));
+		Assert.assertTrue(json, json.contains("\"avGain\":\"NaN\""));
+		Assert.assertEquals("1.5", BenchmarkRecord.fromJson(json).get("scenario"));
 	}
 }
@@ -0,0 +1,41 @@
+package stsc.performance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PopulationSnapshotTest {
+
+	private static double[] metrics(double value) {
+		final double[] result = new double[MetricVector.SIZE];
+		Arrays.fill(result, value);
+		return result;
+	}
+
+	@Test
+	public void testWriteRead() throws IOException {
+		final PopulationSnapshot snapshot = new PopulationSnapshot(1000, //
+				Arrays.asList(new PopulationSnapshot.Individual(5, 1.5, metrics(0.5)), new PopulationSnapshot.Individual(7, -2.0, metrics(-1.0))), //
+				Collections.singletonList(new PopulationSnapshot.Individual(999, 3.0, metrics(2.0))));
+		final Path file = Files.createTempFile("population", ".snapshot");
+		try {
+			snapshot.writeTo(file);
+			Assert.assertEquals(4 + 4 + 8 + 4 + 2 * 4 + 3 * (8 + 8 + 8 * MetricVector.SIZE), Files.size(file));
+			final PopulationSnapshot read = PopulationSnapshot.readFrom(file);
+			Assert.assertEquals(1000, read.getGridSize());
+			Assert.assertEquals(2, read.getPopulation().size());
+			Assert.assertEquals(7, read.getPopulation().get(1).index);
+			Assert.assertEquals(-2.0, read.getPopulation().get(1).cost, 0.0);
+			Assert.assertEquals(999, read.getBest().get(0).index);
+			Assert.assertArrayEquals(metrics(2.0), read.getBest().get(0).metrics, 0.0);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package stsc.performance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import stsc.general.statistic.MetricType;
+
+public class ResultStoreTest {
+
+	private static double[] metrics(Random random) {
+		final double[] result = new double[MetricVector.SIZE];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = random.nextGaussian();
+		}
+		return result;
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	@Test
+	public void testAppendReopenTopK() throws IOException {
+		final Path directory = Files.createTempDirectory("results");
+		try {
+			final Random random = new Random(1);
+			final WeightedMetricCost cost = new WeightedMetricCost().withParameter(MetricType.avGain, 1.0).withParameter(MetricType.maxLoss, -0.5);
+			long best = -1;
+			double bestCost = Double.NEGATIVE_INFINITY;
+			try (ResultStore store = ResultStore.create(directory, 100); ResultStore.Appender appender = store.appender()) {
+				for (int row = 0; row < 1050; ++row) {
+					final double[] metrics = metrics(random);
+					appender.append(row * 31L, row, metrics);
+					if (cost.cost(metrics) > bestCost) {
+						bestCost = cost.cost(metrics);
+						best = row;
+					}
+				}
+			}
+			try (ResultStore store = ResultStore.open(directory)) {
+				Assert.assertEquals(1050, store.size());
+				try (ResultStore.Appender appender = store.appender()) {
+					appender.append(7, 1050, new double[MetricVector.SIZE]);
+				}
+				Assert.assertEquals(1051, store.size());
+				final List<Long> top = store.topK(cost, 10);
+				Assert.assertEquals(10, top.size());
+				Assert.assertEquals(best, store.index(top.get(0)));
+				Assert.assertEquals(best * 31L, store.fingerprint(top.get(0)));
+				Assert.assertEquals(bestCost, cost.cost(store.metrics(top.get(0))), 1e-12);
+				Assert.assertEquals(7, store.fingerprint(1050));
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testAppendersHolesAndPartialSegment() throws IOException {
+		final Path directory = Files.createTempDirectory("results");
+		try {
+			final WeightedMetricCost cost = new WeightedMetricCost().withParameter(MetricType.avGain, 1.0);
+			final double[] metrics = new double[MetricVector.SIZE];
+			try (ResultStore store = ResultStore.create(directory, 1000)) {
+				final ResultStore.Appender first = store.appender();
+				final ResultStore.Appender second = store.appender();
+				first.append(1, 10, metrics);
+				second.append(2, 20, metrics);
+				first.close();
+				second.close();
+				Assert.assertEquals(ResultStore.APPEND_ROWS + 1, store.size());
+				Assert.assertEquals(-1, store.index(1));
+				Assert.assertEquals(20, store.index(ResultStore.APPEND_ROWS));
+				Assert.assertEquals(2, store.topK(cost, 10).size());
+				try (ResultStore.Appender appender = store.appender()) {
+					for (int row = 0; row < 1000; ++row) {
+						appender.append(row, row, metrics);
+					}
+				}
+			}
+			try (ResultStore store = ResultStore.open(directory)) {
+				Assert.assertEquals(ResultStore.APPEND_ROWS + 1001, store.size());
+			}
+			try (FileChannel channel = FileChannel.open(directory.resolve("000000" + ResultStore.EXTENSION), StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, 999), 16);
+			}
+			try {
+				ResultStore.open(directory).close();
+				Assert.fail("Partial segment before the last one");
+			} catch (IOException e) {
+				Assert.assertTrue(e.getMessage().contains("in the middle"));
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+
+}
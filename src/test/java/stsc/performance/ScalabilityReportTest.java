@@ -0,0 +1,36 @@
+package stsc.performance;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalabilityReportTest {
+
+	private static ScalabilityReport amdahl(double serialFraction, int maxThreads) {
+		final ScalabilityReport report = new ScalabilityReport();
+		for (int n = 1; n <= maxThreads; ++n) {
+			final double time = 10.0 * (serialFraction + (1.0 - serialFraction) / n);
+			report.add(n, time * 0.99);
+			report.add(n, time * 1.01);
+		}
+		return report;
+	}
+
+	@Test
+	public void testSpeedupAndEfficiency() {
+		final ScalabilityReport report = amdahl(0.0, 8);
+		Assert.assertEquals(8.0, report.speedup(8), 1e-9);
+		Assert.assertEquals(1.0, report.efficiency(4), 1e-9);
+		Assert.assertEquals(0, report.efficiencyDropsBelow(0.9));
+		Assert.assertTrue(report.variance(2) > 0.0);
+	}
+
+	@Test
+	public void testSerialFractionFit() {
+		final ScalabilityReport report = amdahl(0.2, 16);
+		Assert.assertEquals(0.2, report.amdahlSerialFraction(), 1e-9);
+		Assert.assertEquals(0.2, report.uslCoefficients()[0], 1e-9);
+		Assert.assertEquals(0.0, report.uslCoefficients()[1], 1e-9);
+		Assert.assertEquals(4, report.efficiencyDropsBelow(0.7));
+	}
+
+}
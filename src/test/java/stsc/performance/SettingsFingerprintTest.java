@@ -0,0 +1,56 @@
+package stsc.performance;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import stsc.performance.GridParameter.DoubleParameter;
+import stsc.performance.GridParameter.IntegerParameter;
+import stsc.performance.GridParameter.StringParameter;
+import stsc.performance.GridParameter.SubExecutionParameter;
+
+public class SettingsFingerprintTest {
+
+	private static GridSpace space(int nFrom, int nTo, double pFrom, double psFrom) {
+		return new GridSpace(). //
+				addStock("in", "In", new StringParameter("e", Arrays.asList(new String[] { "open", "close" }))). //
+				addStock("ema", "Ema", new DoubleParameter("P", pFrom, 1.1, 0.05), new SubExecutionParameter("", Arrays.asList(new String[] { "in" }))). //
+				addEod("pnm", "PositionNDayMStocks", new IntegerParameter("n", nFrom, nTo, 1), new DoubleParameter("ps", psFrom, 200000.0, 50.0));
+	}
+
+	/**
+	 * Every point of a reduced 2 * 20 * 31 * 3000 space (3.72 million points),
+	 * not of the full SimulatorSettingsGenerator grid.
+	 */
+	@Test
+	public void testNoCollisionsOverGrid() {
+		final GridSpace space = space(1, 32, 0.1, 50000.0);
+		Assert.assertEquals(2 * 20 * 31 * 3000, space.size());
+		final SettingsFingerprint fingerprint = new SettingsFingerprint(space);
+		final int[] digits = new int[space.dimensions()];
+		final long[] fingerprints = new long[(int) space.size()];
+		for (int i = 0; i < fingerprints.length; ++i) {
+			fingerprints[i] = fingerprint.fingerprint(i, digits);
+		}
+		Arrays.sort(fingerprints);
+		int collisions = 0;
+		for (int i = 1; i < fingerprints.length; ++i) {
+			if (fingerprints[i] == fingerprints[i - 1])
+				++collisions;
+		}
+		Assert.assertEquals(0, collisions);
+	}
+
+	@Test
+	public void testStable() {
+		final long expected = 977197596405336761L;
+		Assert.assertEquals(expected, new SettingsFingerprint(space(1, 32, 0.1, 50000.0)).fingerprintDecoded(new int[] { 1, 4, 0, 3, 100 }));
+		// P 0.3, n 4, ps 55000 reached from other integer and double ranges
+		Assert.assertEquals(expected, new SettingsFingerprint(space(3, 10, 0.2, 30000.0)).fingerprintDecoded(new int[] { 1, 2, 0, 1, 500 }));
+		Assert.assertEquals(expected, new SettingsFingerprint(space(1, 32, 0.15, 54000.0)).fingerprintDecoded(new int[] { 1, 3, 0, 3, 20 }));
+		Assert.assertNotEquals(expected, new SettingsFingerprint(space(3, 10, 0.2, 30000.0)).fingerprintDecoded(new int[] { 1, 2, 0, 3, 500 }));
+		Assert.assertNotEquals(expected, new SettingsFingerprint(space(3, 10, 0.2, 30000.0)).fingerprintDecoded(new int[] { 1, 2, 0, 1, 501 }));
+	}
+
+}